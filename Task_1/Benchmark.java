@@ -1,8 +1,5 @@
 import java.io.*;
 import java.util.*;
-import java.lang.management.ManagementFactory;
-import java.lang.management.MemoryMXBean;
-import java.lang.management.MemoryUsage;
 
 public class Benchmark {
 
@@ -17,19 +14,20 @@ public class Benchmark {
         List<Double> memoryUsages = new ArrayList<>();
 
         for (int i = 0; i < runs; i++) {
-            double memoryBefore = getMemoryMB();
+            RunMetrics metrics = RunMetrics.start();
             long start = System.nanoTime();
             Matrix.multiplyMatrices(n);
             long end = System.nanoTime();
             double duration = (end - start) / 1e9;
-            double memoryAfter = getMemoryMB();
-            double usedMemory = Math.max(0.0, memoryAfter - memoryBefore);
+            metrics.stop();
 
+            // Bytes allocated during the run (exact, unlike a heap delta)
             times.add(duration);
-            memoryUsages.add(usedMemory);
+            memoryUsages.add(metrics.allocatedMB());
 
-            System.out.printf("Running %d/%d: %.4f seconds, Memory used: %.2f MB%n",
-                    i + 1, runs, duration, usedMemory);
+            System.out.printf("Running %d/%d: %.4f seconds, %s%n",
+                    i + 1, runs, duration, metrics);
+            saveRun(n, i + 1, duration, metrics);
         }
 
         double mean = mean(times);
@@ -46,18 +44,12 @@ public class Benchmark {
         System.out.printf("Standard deviation: %.4f s%n", stdev);
         System.out.printf("Best time: %.4f s%n", min);
         System.out.printf("Worst time: %.4f s%n", max);
-        System.out.printf("Average real memory used: %.2f MB%n", realMemory);
+        System.out.printf("Average memory allocated: %.2f MB%n", realMemory);
         System.out.printf("Theoretical memory usage: %.2f MB%n", theoreticalMemory);
 
         saveResult("java", n, runs, mean, stdev, min, max, realMemory, theoreticalMemory);
     }
 
-    public static double getMemoryMB() {
-        MemoryMXBean memoryBean = ManagementFactory.getMemoryMXBean();
-        MemoryUsage heapUsage = memoryBean.getHeapMemoryUsage();
-        return heapUsage.getUsed() / (1024.0 * 1024.0);
-    }
-
     public static double estimateMemoryMB(int n) {
         return 3.0 * n * n * 8 / (1024.0 * 1024.0);
     }
@@ -102,4 +94,21 @@ public class Benchmark {
             System.out.println("Error saving results: " + e.getMessage());
         }
     }
+
+    // Per-run JVM metrics (allocation, GC, peak RSS) go to a Java-only file,
+    // since benchmark_results.csv is shared with the C++ and Python versions
+    public static void saveRun(int n, int run, double duration, RunMetrics metrics) {
+        File file = new File("results/benchmark_java_runs.csv");
+        file.getParentFile().mkdirs();
+        boolean exists = file.exists();
+
+        try (PrintWriter writer = new PrintWriter(new BufferedWriter(new FileWriter(file, true)))) {
+            if (!exists) {
+                writer.println("size,run,time (s)," + RunMetrics.CSV_HEADER);
+            }
+            writer.printf(Locale.US, "%d,%d,%.4f,%s%n", n, run, duration, metrics.toCsv());
+        } catch (IOException e) {
+            System.out.println("Error saving results: " + e.getMessage());
+        }
+    }
 }
@@ -0,0 +1,215 @@
+import java.util.stream.IntStream;
+
+/**
+ * Batched multiplication of many small independent matrices,
+ * C_p = A_p * B_p for p = 0 .. batch - 1 (e.g. 4 x 4 up to 64 x 64).
+ *
+ * Each operand of a batch lives in one contiguous buffer as a strided
+ * batch: matrix p of A is the row-major m x k block starting at
+ * a[aOffset + p * strideA], and likewise for B (k x n) and C (m x n).
+ * A stride of 0 reuses one matrix for the whole batch, e.g. a single B
+ * applied to many A. C is overwritten, and nothing is allocated per
+ * product.
+ *
+ * The kernel is chosen once per batch from the shape:
+ *  - 2 x 2, 3 x 3 and 4 x 4 products are fully unrolled, with B held in
+ *    local variables and each row of C written in one step,
+ *  - any other shape keeps a 2 x 4 block of C in local variables while k
+ *    runs (register blocking without packing, since the operands already
+ *    fit in L1), with a scalar edge for odd rows and the last n % 4 columns.
+ * multiplyParallel splits the batch into contiguous ranges, so each worker
+ * streams through its own part of the buffers.
+ */
+public class BatchedGemm {
+
+    /**
+     * Multiplies a batch stored back to back: strides m * k, k * n and m * n.
+     */
+    public static double[] multiply(int m, int k, int n, int batch, double[] a, double[] b) {
+        double[] c = new double[Math.multiplyExact(batch, Math.multiplyExact(m, n))];
+        multiply(m, k, n, batch, a, 0, m * k, b, 0, k * n, c, 0, m * n);
+        return c;
+    }
+
+    /**
+     * C_p = A_p * B_p for every matrix p of a strided batch.
+     */
+    public static void multiply(int m, int k, int n, int batch,
+                                double[] a, int aOffset, int strideA,
+                                double[] b, int bOffset, int strideB,
+                                double[] c, int cOffset, int strideC) {
+        check(m, k, n, batch, a, aOffset, strideA, b, bOffset, strideB, c, cOffset, strideC);
+        multiplyRange(m, k, n, 0, batch, a, aOffset, strideA, b, bOffset, strideB, c, cOffset, strideC);
+    }
+
+    /**
+     * Same as multiply, with the batch split into parts contiguous ranges
+     * that run on the common ForkJoin pool. C must not overlap between
+     * matrices (strideC >= m * n).
+     */
+    public static void multiplyParallel(int m, int k, int n, int batch,
+                                        double[] a, int aOffset, int strideA,
+                                        double[] b, int bOffset, int strideB,
+                                        double[] c, int cOffset, int strideC, int parts) {
+        check(m, k, n, batch, a, aOffset, strideA, b, bOffset, strideB, c, cOffset, strideC);
+        if (batch > 1 && strideC < m * n) {
+            throw new IllegalArgumentException("Matrices of C overlap: strideC " + strideC + " < " + m * n);
+        }
+        int ranges = Math.max(1, Math.min(parts, batch));
+
+        IntStream.range(0, ranges).parallel().forEach(r -> {
+            int from = (int) ((long) batch * r / ranges);
+            int to = (int) ((long) batch * (r + 1) / ranges);
+            multiplyRange(m, k, n, from, to, a, aOffset, strideA, b, bOffset, strideB, c, cOffset, strideC);
+        });
+    }
+
+    // Products [from, to) of the batch, one loop per kernel so each call inlines
+    private static void multiplyRange(int m, int k, int n, int from, int to,
+                                      double[] a, int aOffset, int strideA,
+                                      double[] b, int bOffset, int strideB,
+                                      double[] c, int cOffset, int strideC) {
+        int ao = aOffset + from * strideA;
+        int bo = bOffset + from * strideB;
+        int co = cOffset + from * strideC;
+
+        if (m == 4 && k == 4 && n == 4) {
+            for (int p = from; p < to; p++, ao += strideA, bo += strideB, co += strideC) {
+                multiply4(a, ao, b, bo, c, co);
+            }
+        } else if (m == 3 && k == 3 && n == 3) {
+            for (int p = from; p < to; p++, ao += strideA, bo += strideB, co += strideC) {
+                multiply3(a, ao, b, bo, c, co);
+            }
+        } else if (m == 2 && k == 2 && n == 2) {
+            for (int p = from; p < to; p++, ao += strideA, bo += strideB, co += strideC) {
+                multiply2(a, ao, b, bo, c, co);
+            }
+        } else {
+            for (int p = from; p < to; p++, ao += strideA, bo += strideB, co += strideC) {
+                multiplyBlocked(m, k, n, a, ao, b, bo, c, co);
+            }
+        }
+    }
+
+    private static void multiply2(double[] a, int ao, double[] b, int bo, double[] c, int co) {
+        double a00 = a[ao], a01 = a[ao + 1], a10 = a[ao + 2], a11 = a[ao + 3];
+        double b00 = b[bo], b01 = b[bo + 1], b10 = b[bo + 2], b11 = b[bo + 3];
+
+        c[co] = a00 * b00 + a01 * b10;
+        c[co + 1] = a00 * b01 + a01 * b11;
+        c[co + 2] = a10 * b00 + a11 * b10;
+        c[co + 3] = a10 * b01 + a11 * b11;
+    }
+
+    private static void multiply3(double[] a, int ao, double[] b, int bo, double[] c, int co) {
+        double b00 = b[bo], b01 = b[bo + 1], b02 = b[bo + 2];
+        double b10 = b[bo + 3], b11 = b[bo + 4], b12 = b[bo + 5];
+        double b20 = b[bo + 6], b21 = b[bo + 7], b22 = b[bo + 8];
+
+        for (int r = 0; r < 9; r += 3) {
+            double x0 = a[ao + r], x1 = a[ao + r + 1], x2 = a[ao + r + 2];
+            c[co + r] = x0 * b00 + x1 * b10 + x2 * b20;
+            c[co + r + 1] = x0 * b01 + x1 * b11 + x2 * b21;
+            c[co + r + 2] = x0 * b02 + x1 * b12 + x2 * b22;
+        }
+    }
+
+    private static void multiply4(double[] a, int ao, double[] b, int bo, double[] c, int co) {
+        double b00 = b[bo], b01 = b[bo + 1], b02 = b[bo + 2], b03 = b[bo + 3];
+        double b10 = b[bo + 4], b11 = b[bo + 5], b12 = b[bo + 6], b13 = b[bo + 7];
+        double b20 = b[bo + 8], b21 = b[bo + 9], b22 = b[bo + 10], b23 = b[bo + 11];
+        double b30 = b[bo + 12], b31 = b[bo + 13], b32 = b[bo + 14], b33 = b[bo + 15];
+
+        for (int r = 0; r < 16; r += 4) {
+            double x0 = a[ao + r], x1 = a[ao + r + 1], x2 = a[ao + r + 2], x3 = a[ao + r + 3];
+            c[co + r] = x0 * b00 + x1 * b10 + x2 * b20 + x3 * b30;
+            c[co + r + 1] = x0 * b01 + x1 * b11 + x2 * b21 + x3 * b31;
+            c[co + r + 2] = x0 * b02 + x1 * b12 + x2 * b22 + x3 * b32;
+            c[co + r + 3] = x0 * b03 + x1 * b13 + x2 * b23 + x3 * b33;
+        }
+    }
+
+    // Any shape: 2 x 4 blocks of C in registers, scalar edges
+    private static void multiplyBlocked(int m, int k, int n, double[] a, int ao, double[] b, int bo,
+                                        double[] c, int co) {
+        int n4 = n - n % 4;
+        int i = 0;
+
+        for (; i + 1 < m; i += 2) {
+            int a0 = ao + i * k, a1 = a0 + k;
+            int c0 = co + i * n, c1 = c0 + n;
+
+            for (int j = 0; j < n4; j += 4) {
+                double s00 = 0, s01 = 0, s02 = 0, s03 = 0;
+                double s10 = 0, s11 = 0, s12 = 0, s13 = 0;
+                for (int p = 0, bRow = bo + j; p < k; p++, bRow += n) {
+                    double x = a[a0 + p], y = a[a1 + p];
+                    double v0 = b[bRow], v1 = b[bRow + 1], v2 = b[bRow + 2], v3 = b[bRow + 3];
+                    s00 += x * v0;
+                    s01 += x * v1;
+                    s02 += x * v2;
+                    s03 += x * v3;
+                    s10 += y * v0;
+                    s11 += y * v1;
+                    s12 += y * v2;
+                    s13 += y * v3;
+                }
+                c[c0 + j] = s00;
+                c[c0 + j + 1] = s01;
+                c[c0 + j + 2] = s02;
+                c[c0 + j + 3] = s03;
+                c[c1 + j] = s10;
+                c[c1 + j + 1] = s11;
+                c[c1 + j + 2] = s12;
+                c[c1 + j + 3] = s13;
+            }
+            for (int j = n4; j < n; j++) {
+                c[c0 + j] = dot(a, a0, b, bo + j, k, n);
+                c[c1 + j] = dot(a, a1, b, bo + j, k, n);
+            }
+        }
+
+        // Last row when m is odd
+        if (i < m) {
+            int a0 = ao + i * k, c0 = co + i * n;
+            for (int j = 0; j < n; j++) {
+                c[c0 + j] = dot(a, a0, b, bo + j, k, n);
+            }
+        }
+    }
+
+    // Row of A starting at aRow times the column of B starting at bCol
+    private static double dot(double[] a, int aRow, double[] b, int bCol, int k, int n) {
+        double sum = 0.0;
+        for (int p = 0; p < k; p++) {
+            sum += a[aRow + p] * b[bCol + p * n];
+        }
+        return sum;
+    }
+
+    private static void check(int m, int k, int n, int batch,
+                              double[] a, int aOffset, int strideA,
+                              double[] b, int bOffset, int strideB,
+                              double[] c, int cOffset, int strideC) {
+        if (m < 1 || k < 1 || n < 1 || batch < 0) {
+            throw new IllegalArgumentException("Invalid batch: " + batch + " x (" + m + " x " + k + " by "
+                    + k + " x " + n + ")");
+        }
+        checkOperand("A", a, aOffset, strideA, m * k, batch);
+        checkOperand("B", b, bOffset, strideB, k * n, batch);
+        checkOperand("C", c, cOffset, strideC, m * n, batch);
+    }
+
+    // The last matrix of the batch must end inside the buffer
+    private static void checkOperand(String name, double[] data, int offset, int stride, int size, int batch) {
+        if (offset < 0 || stride < 0) {
+            throw new IllegalArgumentException(name + ": negative offset or stride");
+        }
+        long end = batch == 0 ? 0 : offset + (long) (batch - 1) * stride + size;
+        if (end > data.length) {
+            throw new IllegalArgumentException(name + ": batch of " + batch + " needs " + end
+                    + " values, buffer has " + data.length);
+        }
+    }
+}
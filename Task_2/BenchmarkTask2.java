@@ -1,16 +1,29 @@
+import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.util.Random;
+import java.util.function.Supplier;
+import java.util.function.ToDoubleFunction;
 
 /**
  * Main benchmark class for Task 2.
  * It evaluates:
  *  - Basic dense multiplication
  *  - Cache-friendly dense multiplication
- *  - Tiled dense multiplication (16, 32, 64)
+ *  - Tiled dense multiplication (16, 32, 64 and the host's tuned tile)
+ *  - Packed GEMM with a register-blocked micro-kernel
+ *  - Strassen-Winograd on top of the packed kernel
  *  - Sparse multiplication using CSR and the mc2depi.mtx matrix
+ *    (sequential and nnz-balanced parallel SpMV)
+ *  - Float and mixed-precision versions of the tiled kernel and of SpMV,
+ *    with their error against the double result
  *
- * Results are appended to benchmark_task2_results.csv
+ * Results are appended to benchmark_task2_results.csv, one row per method:
+ * timing (mean, best, worst) followed by the RunMetrics columns (mean
+ * allocation and GC per run, peak RSS and heap over all runs).
+ * The precision runs go to benchmark_task2_precision.csv instead: kernel,
+ * precision, n, runs, mean and best time, GFLOP/s (from the mean) and the
+ * relative error max |C - C_double| / max |C_double|.
  */
 public class BenchmarkTask2 {
 
@@ -38,12 +51,6 @@ public class BenchmarkTask2 {
         return v;
     }
 
-    // Returns used memory in MB
-    private static double getMemoryUsageMB() {
-        Runtime rt = Runtime.getRuntime();
-        return (rt.totalMemory() - rt.freeMemory()) / (1024.0 * 1024.0);
-    }
-
     // Appends a row to the CSV results file
     private static void appendCSV(String row) {
         try (FileWriter fw = new FileWriter("results/benchmark_task2_results.csv", true)) {
@@ -54,6 +61,21 @@ public class BenchmarkTask2 {
     }
 
 
+    // Appends a row to the precision results file, with a header when it is new
+    private static void appendPrecisionCSV(String row) {
+        File file = new File("results/benchmark_task2_precision.csv");
+        boolean exists = file.exists();
+        try (FileWriter fw = new FileWriter(file, true)) {
+            if (!exists) {
+                fw.write("kernel,precision,n,runs,mean,best,gflops,relative_error\n");
+            }
+            fw.write(row + "\n");
+        } catch (IOException e) {
+            System.out.println("Error writing to CSV: " + e.getMessage());
+        }
+    }
+
+
     public static void main(String[] args) {
         try {
             java.util.Scanner sc = new java.util.Scanner(System.in);
@@ -69,6 +91,10 @@ public class BenchmarkTask2 {
             double[][] A = generateRandomMatrix(n);
             double[][] B = generateRandomMatrix(n);
 
+            // Tuned parameters of this host (run Task 3's AutoTuner to create them)
+            TuningProfile tuned = TuningProfile.current();
+            System.out.println("Tuning profile: " + tuned);
+
             System.out.println("\n===== DENSE MULTIPLICATION TESTS =====");
 
             benchmarkDense("basic", n, runs, A, B);
@@ -76,6 +102,13 @@ public class BenchmarkTask2 {
             benchmarkDense("tiled16", n, runs, A, B, 16);
             benchmarkDense("tiled32", n, runs, A, B, 32);
             benchmarkDense("tiled64", n, runs, A, B, 64);
+            benchmarkDense("tiled_tuned", n, runs, A, B, tuned.tile);
+            benchmarkDense("packed", n, runs, A, B);
+            benchmarkDense("strassen", n, runs, A, B);
+
+            System.out.println("\n===== PRECISION TESTS =====");
+
+            benchmarkPrecision(n, runs, A, B, tuned.tile);
 
             System.out.println("\n===== SPARSE MULTIPLICATION TEST =====");
             
@@ -88,44 +121,48 @@ public class BenchmarkTask2 {
         }
     }
 
-    // Benchmark basic and cache-friendly dense multiplication
+    // Benchmark basic, cache-friendly, packed and Strassen dense multiplication
     private static void benchmarkDense(String algorithm, int n, int runs,
                                        double[][] A, double[][] B) {
 
         double totalTime = 0.0;
         double best = Double.MAX_VALUE;
         double worst = Double.MIN_VALUE;
+        RunMetrics metrics = new RunMetrics();
 
         for (int r = 0; r < runs; r++) {
 
-            double memBefore = getMemoryUsageMB();
+            RunMetrics run = RunMetrics.start();
             long start = System.nanoTime();
 
             double[][] C;
             if (algorithm.equals("basic")) {
                 C = OptimizedMatrix.multiplyBasic(A, B);
+            } else if (algorithm.equals("packed")) {
+                C = OptimizedMatrix.multiplyPacked(A, B);
+            } else if (algorithm.equals("strassen")) {
+                C = StrassenMatrix.multiply(A, B);
             } else {
                 C = OptimizedMatrix.multiplyCacheFriendly(A, B);
             }
 
             long end = System.nanoTime();
-            double memAfter = getMemoryUsageMB();
+            metrics.add(run.stop());
 
             double elapsed = (end - start) / 1e9;
-            double memUsed = Math.max(0, memAfter - memBefore);
 
             totalTime += elapsed;
             best = Math.min(best, elapsed);
             worst = Math.max(worst, elapsed);
 
-            System.out.printf("[%s] Run %d/%d: %.6f s, %.2f MB\n",
-                    algorithm, r + 1, runs, elapsed, memUsed);
+            System.out.printf("[%s] Run %d/%d: %.6f s, %s\n",
+                    algorithm, r + 1, runs, elapsed, run);
         }
 
         double mean = totalTime / runs;
 
         appendCSV("java," + algorithm + "," + n + "," + runs + "," +
-                mean + "," + best + "," + worst);
+                mean + "," + best + "," + worst + "," + metrics.toCsv(runs));
     }
 
     // Benchmark tiled dense multiplication (fixed: nanoNanoTime → nanoTime)
@@ -135,78 +172,167 @@ public class BenchmarkTask2 {
         double totalTime = 0.0;
         double best = Double.MAX_VALUE;
         double worst = Double.MIN_VALUE;
+        RunMetrics metrics = new RunMetrics();
 
         for (int r = 0; r < runs; r++) {
 
-            double memBefore = getMemoryUsageMB();
+            RunMetrics run = RunMetrics.start();
             long start = System.nanoTime();  // ✔️ FIXED
 
             double[][] C = OptimizedMatrix.multiplyTiled(A, B, blockSize);
 
             long end = System.nanoTime();
-            double memAfter = getMemoryUsageMB();
+            metrics.add(run.stop());
 
             double elapsed = (end - start) / 1e9;
-            double memUsed = Math.max(0, memAfter - memBefore);
 
             totalTime += elapsed;
             best = Math.min(best, elapsed);
             worst = Math.max(worst, elapsed);
 
-            System.out.printf("[%s] Run %d/%d: %.6f s, %.2f MB\n",
-                    algorithm, r + 1, runs, elapsed, memUsed);
+            System.out.printf("[%s] Run %d/%d: %.6f s, %s\n",
+                    algorithm, r + 1, runs, elapsed, run);
         }
 
         double mean = totalTime / runs;
 
         appendCSV("java," + algorithm + "," + n + "," + runs + "," +
-                mean + "," + best + "," + worst);
+                mean + "," + best + "," + worst + "," + metrics.toCsv(runs));
+    }
+
+    // Tiled kernel in double, float and mixed precision on the same inputs
+    private static void benchmarkPrecision(int n, int runs, double[][] A, double[][] B, int tile) {
+        DenseMatrix Ad = DenseMatrix.of(A), Bd = DenseMatrix.of(B);
+        FloatMatrix Af = FloatMatrix.of(Ad), Bf = FloatMatrix.of(Bd);
+        DenseMatrix reference = OptimizedMatrix.multiplyTiled(Ad, Bd, tile);
+        double flops = 2.0 * n * n * n;
+        String size = String.valueOf(n);
+
+        benchmarkPrecision("tiled", "double", size, runs, flops, () -> OptimizedMatrix.multiplyTiled(Ad, Bd, tile),
+                C -> FloatMatrix.relativeError(C, reference));
+        benchmarkPrecision("tiled", "float", size, runs, flops, () -> OptimizedMatrix.multiplyTiled(Af, Bf, tile),
+                C -> FloatMatrix.relativeError(C, reference));
+        benchmarkPrecision("tiled", "mixed", size, runs, flops, () -> OptimizedMatrix.multiplyTiledMixed(Af, Bf, tile),
+                C -> FloatMatrix.relativeError(C, reference));
+    }
+
+    // Times one kernel after a warm-up run, then measures the error of its last result
+    private static <T> void benchmarkPrecision(String kernel, String precision, String n, int runs, double flops,
+                                               Supplier<T> multiply, ToDoubleFunction<T> error) {
+        double total = 0.0;
+        double best = Double.MAX_VALUE;
+        T result = multiply.get();
+
+        for (int r = 0; r < runs; r++) {
+            long start = System.nanoTime();
+            result = multiply.get();
+            double elapsed = (System.nanoTime() - start) / 1e9;
+
+            total += elapsed;
+            best = Math.min(best, elapsed);
+        }
+
+        double mean = total / runs;
+        double gflops = flops / mean / 1e9;
+        double relativeError = error.applyAsDouble(result);
+        System.out.printf("[%s %s] mean %.6f s, %.3f GFLOP/s, relative error %.3g%n",
+                kernel, precision, mean, gflops, relativeError);
+
+        appendPrecisionCSV(kernel + "," + precision + "," + n + "," + runs + "," +
+                mean + "," + best + "," + gflops + "," + relativeError);
     }
 
     // Benchmark sparse multiplication using mc2depi.mtx
     private static void benchmarkSparse() {
         try {
-            // Load CSR sparse matrix from data/
-            CSRMatrix M = MatrixMarketReader.readCSR("data/mc2depi.mtx");
+            // Load CSR sparse matrix from data/ (binary cache if present)
+            long loadStart = System.nanoTime();
+            CSRMatrix M = loadSparse("data/mc2depi.mtx", "data/mc2depi.csr");
+            System.out.printf("Loaded in %.3f s%n", (System.nanoTime() - loadStart) / 1e9);
 
             System.out.println("Loaded sparse matrix: " + M.rows + " x " + M.cols);
             System.out.println("Non-zeros: " + M.values.length);
 
             double[] x = generateRandomVector(M.cols);
 
-            int runs = 10;
-            double total = 0.0;
-            double best = Double.MAX_VALUE;
-            double worst = Double.MIN_VALUE;
+            // Output vector is allocated once and reused, as in an iterative solver
+            double[] y = new double[M.rows];
+            int threads = Runtime.getRuntime().availableProcessors();
+
+            benchmarkSpMV("sparseCSR", () -> M.multiply(x, y));
+            benchmarkSpMV("sparseCSR_parallel", () -> M.multiplyParallel(x, y, threads));
+
+            // Same product straight from the memory-mapped binary file
+            MappedCSRMatrix mapped = MappedCSRMatrix.open("data/mc2depi.csr");
+            benchmarkSpMV("sparseCSR_mapped", () -> mapped.multiply(x, y));
+
+            // Single and mixed precision against the double SpMV
+            FloatCSRMatrix Mf = FloatCSRMatrix.of(M);
+            float[] xf = new float[x.length];
+            for (int i = 0; i < x.length; i++) xf[i] = (float) x[i];
+            double[] reference = M.multiply(x);
+            double flops = 2.0 * M.nnz();
+            String name = "matrix_market";
+
+            benchmarkPrecision("spmv", "double", name, 10, flops, () -> M.multiply(x),
+                    r -> FloatMatrix.relativeError(r, reference));
+            benchmarkPrecision("spmv", "float", name, 10, flops, () -> Mf.multiply(xf),
+                    r -> FloatMatrix.relativeError(r, reference));
+            benchmarkPrecision("spmv", "mixed", name, 10, flops, () -> {
+                double[] r = new double[Mf.rows];
+                Mf.multiply(xf, r);
+                return r;
+            }, r -> FloatMatrix.relativeError(r, reference));
 
-            for (int r = 0; r < runs; r++) {
+        } catch (Exception e) {
+            System.out.println("Sparse benchmark failed: " + e.getMessage());
+        }
+    }
 
-                double memBefore = getMemoryUsageMB();
-                long start = System.nanoTime();
+    // Reads the binary CSR cache (mapped, then copied into a heap CSRMatrix
+    // for the heap kernels), or parses the .mtx file and rewrites the cache
+    // when it is missing or older than the .mtx file
+    private static CSRMatrix loadSparse(String mtxFile, String binaryFile) throws IOException {
+        java.io.File cache = new java.io.File(binaryFile);
+        if (cache.exists() && cache.lastModified() >= new java.io.File(mtxFile).lastModified()) {
+            return MappedCSRMatrix.open(binaryFile).toCSRMatrix();
+        }
+        CSRMatrix M = MatrixMarketReader.readCSRParallel(mtxFile);
+        MappedCSRMatrix.write(M, binaryFile);
+        return M;
+    }
 
-                double[] y = M.multiply(x);
+    // Times one SpMV operation (the output vector is reused between runs)
+    private static void benchmarkSpMV(String algorithm, Runnable spmv) {
+        int runs = 10;
+        double total = 0.0;
+        double best = Double.MAX_VALUE;
+        double worst = Double.MIN_VALUE;
+        RunMetrics metrics = new RunMetrics();
 
-                long end = System.nanoTime();
-                double memAfter = getMemoryUsageMB();
+        for (int r = 0; r < runs; r++) {
 
-                double elapsed = (end - start) / 1e9;
-                double memUsed = Math.max(0, memAfter - memBefore);
+            RunMetrics run = RunMetrics.start();
+            long start = System.nanoTime();
 
-                total += elapsed;
-                best = Math.min(best, elapsed);
-                worst = Math.max(worst, elapsed);
+            spmv.run();
 
-                System.out.printf("[sparse] Run %d/%d: %.6f s, %.2f MB\n",
-                        r + 1, runs, elapsed, memUsed);
-            }
+            long end = System.nanoTime();
+            metrics.add(run.stop());
 
-            double mean = total / runs;
+            double elapsed = (end - start) / 1e9;
 
-            appendCSV("java,sparseCSR,matrix_market," + runs + "," +
-                    mean + "," + best + "," + worst);
+            total += elapsed;
+            best = Math.min(best, elapsed);
+            worst = Math.max(worst, elapsed);
 
-        } catch (Exception e) {
-            System.out.println("Sparse benchmark failed: " + e.getMessage());
+            System.out.printf("[%s] Run %d/%d: %.6f s, %s\n",
+                    algorithm, r + 1, runs, elapsed, run);
         }
+
+        double mean = total / runs;
+
+        appendCSV("java," + algorithm + ",matrix_market," + runs + "," +
+                mean + "," + best + "," + worst + "," + metrics.toCsv(runs));
     }
 }
@@ -1,3 +1,7 @@
+import java.util.Arrays;
+import java.util.function.IntToLongFunction;
+import java.util.stream.IntStream;
+
 /**
  * Class representing a sparse matrix stored in CSR format.
  * CSR = Compressed Sparse Row:
@@ -18,15 +22,316 @@ public class CSRMatrix {
      */
     public double[] multiply(double[] x) {
         double[] y = new double[rows];
+        multiply(x, y);
+        return y;
+    }
+
+    /**
+     * Performs y = A * x into a caller-supplied vector, so iterative
+     * solvers can reuse the same output buffer on every iteration.
+     */
+    public void multiply(double[] x, double[] y) {
+        checkVectors(x, y);
+        multiplyRows(x, y, 0, rows);
+    }
+
+    /**
+     * Parallel y = A * x using one part per available core.
+     */
+    public double[] multiplyParallel(double[] x) {
+        double[] y = new double[rows];
+        multiplyParallel(x, y, Runtime.getRuntime().availableProcessors());
+        return y;
+    }
+
+    /**
+     * Parallel y = A * x into a caller-supplied vector.
+     * Rows are split into parts with (almost) equal numbers of non-zeros,
+     * not equal numbers of rows, so a few very dense rows do not leave one
+     * thread doing most of the work. Parts run on the common ForkJoin pool.
+     */
+    public void multiplyParallel(double[] x, double[] y, int parts) {
+        checkVectors(x, y);
+        int[] bounds = partitionByNnz(parts);
+
+        IntStream.range(0, bounds.length - 1).parallel().forEach(p ->
+                multiplyRows(x, y, bounds[p], bounds[p + 1]));
+    }
+
+    /**
+     * Sparse-dense product Y = A * X, where X is a cols x k dense block of
+     * k right-hand sides. Each non-zero of A is read once and applied to all
+     * k vectors, so the sweep over values/colIndex is shared between them.
+     */
+    public DenseMatrix multiply(DenseMatrix X) {
+        DenseMatrix Y = new DenseMatrix(rows, X.cols);
+        multiply(X, Y);
+        return Y;
+    }
+
+    /**
+     * Sparse-dense product Y = A * X into a caller-supplied row-major Y.
+     */
+    public void multiply(DenseMatrix X, DenseMatrix Y) {
+        checkBlocks(X, Y);
+        multiplyRows(X.rowMajor(), Y, 0, rows);
+    }
+
+    /**
+     * Parallel Y = A * X, split into parts with (almost) equal numbers of
+     * non-zeros like the vector version. Parts run on the common ForkJoin pool.
+     */
+    public DenseMatrix multiplyParallel(DenseMatrix X, int parts) {
+        DenseMatrix Y = new DenseMatrix(rows, X.cols);
+        checkBlocks(X, Y);
+        DenseMatrix Xr = X.rowMajor();
+        int[] bounds = partitionByNnz(parts);
+
+        IntStream.range(0, bounds.length - 1).parallel().forEach(p ->
+                multiplyRows(Xr, Y, bounds[p], bounds[p + 1]));
+        return Y;
+    }
+
+    /**
+     * Dense-sparse product Y = X * A, where X is an m x rows dense matrix.
+     * Row i of Y is the sum of the rows of A weighted by row i of X, so A
+     * is swept once per row of X in storage order.
+     */
+    public DenseMatrix multiplyLeft(DenseMatrix X) {
+        if (X.cols != rows) {
+            throw new IllegalArgumentException("Cannot multiply " + X.rows + " x " + X.cols
+                    + " by " + rows + " x " + cols + " CSR");
+        }
+        X = X.rowMajor();
+        DenseMatrix Y = new DenseMatrix(X.rows, cols);
+        double[] xd = X.data, yd = Y.data;
+
+        for (int i = 0; i < X.rows; i++) {
+            int xRow = X.offset + i * X.rowStride;
+            int yRow = i * cols;
+            for (int r = 0; r < rows; r++) {
+                double x = xd[xRow + r];
+                if (x == 0.0) continue;
+                for (int p = rowPtr[r]; p < rowPtr[r + 1]; p++) {
+                    yd[yRow + colIndex[p]] += x * values[p];
+                }
+            }
+        }
+        return Y;
+    }
+
+    /**
+     * Sparse-sparse product C = A * B (Gustavson's row-by-row algorithm).
+     *
+     * A symbolic pass first counts the distinct columns of every row of C
+     * so the output arrays are allocated with their exact size. The numeric
+     * pass then accumulates each row in a dense accumulator indexed by
+     * column, and writes the row out with its columns sorted.
+     */
+    public CSRMatrix multiply(CSRMatrix B) {
+        if (cols != B.rows) {
+            throw new IllegalArgumentException("Cannot multiply " + rows + " x " + cols
+                    + " by " + B.rows + " x " + B.cols);
+        }
+
+        // marker[j] == i means column j has already been seen in row i
+        int[] marker = new int[B.cols];
+        Arrays.fill(marker, -1);
+
+        // Symbolic pass: size of every output row
+        int[] cRowPtr = new int[rows + 1];
+        for (int i = 0; i < rows; i++) {
+            int count = 0;
+            for (int p = rowPtr[i]; p < rowPtr[i + 1]; p++) {
+                int k = colIndex[p];
+                for (int q = B.rowPtr[k]; q < B.rowPtr[k + 1]; q++) {
+                    int j = B.colIndex[q];
+                    if (marker[j] != i) {
+                        marker[j] = i;
+                        count++;
+                    }
+                }
+            }
+            cRowPtr[i + 1] = cRowPtr[i] + count;
+        }
+
+        int[] cColIndex = new int[cRowPtr[rows]];
+        double[] cValues = new double[cRowPtr[rows]];
+        double[] acc = new double[B.cols];
+        Arrays.fill(marker, -1);
+
+        // Numeric pass: accumulate row i of C, then gather it in column order
+        for (int i = 0; i < rows; i++) {
+            int next = cRowPtr[i];
+            for (int p = rowPtr[i]; p < rowPtr[i + 1]; p++) {
+                int k = colIndex[p];
+                double a = values[p];
+                for (int q = B.rowPtr[k]; q < B.rowPtr[k + 1]; q++) {
+                    int j = B.colIndex[q];
+                    if (marker[j] != i) {
+                        marker[j] = i;
+                        cColIndex[next++] = j;
+                    }
+                    acc[j] += a * B.values[q];
+                }
+            }
+
+            Arrays.sort(cColIndex, cRowPtr[i], next);
+            for (int p = cRowPtr[i]; p < next; p++) {
+                int j = cColIndex[p];
+                cValues[p] = acc[j];
+                acc[j] = 0.0;
+            }
+        }
+
+        CSRMatrix C = new CSRMatrix();
+        C.rows = rows;
+        C.cols = B.cols;
+        C.values = cValues;
+        C.colIndex = cColIndex;
+        C.rowPtr = cRowPtr;
+
+        return C;
+    }
+
+    /**
+     * Number of stored non-zeros.
+     */
+    public int nnz() {
+        return rowPtr[rows];
+    }
 
+    /**
+     * Fraction of the rows x cols entries that are stored.
+     */
+    public double density() {
+        return rows == 0 || cols == 0 ? 0.0 : (double) nnz() / ((double) rows * cols);
+    }
+
+    /**
+     * Copies the non-zeros of a dense matrix (or view) into a new CSR matrix.
+     */
+    public static CSRMatrix of(DenseMatrix M) {
+        int count = 0;
+        for (int i = 0; i < M.rows; i++) {
+            for (int j = 0; j < M.cols; j++) {
+                if (M.get(i, j) != 0.0) count++;
+            }
+        }
+
+        CSRMatrix R = new CSRMatrix();
+        R.rows = M.rows;
+        R.cols = M.cols;
+        R.rowPtr = new int[M.rows + 1];
+        R.colIndex = new int[count];
+        R.values = new double[count];
+
+        int next = 0;
+        for (int i = 0; i < M.rows; i++) {
+            for (int j = 0; j < M.cols; j++) {
+                double v = M.get(i, j);
+                if (v != 0.0) {
+                    R.colIndex[next] = j;
+                    R.values[next++] = v;
+                }
+            }
+            R.rowPtr[i + 1] = next;
+        }
+        return R;
+    }
+
+    /**
+     * Copies this matrix into a new dense matrix.
+     */
+    public DenseMatrix toDense() {
+        DenseMatrix R = new DenseMatrix(rows, cols);
         for (int i = 0; i < rows; i++) {
+            for (int p = rowPtr[i]; p < rowPtr[i + 1]; p++) {
+                R.data[i * cols + colIndex[p]] += values[p];
+            }
+        }
+        return R;
+    }
+
+    /**
+     * Splits the rows into at most parts contiguous ranges holding about
+     * nnz / parts non-zeros each. Range p is [bounds[p], bounds[p + 1]).
+     * Each boundary is found by binary search over the prefix sums in rowPtr.
+     */
+    public int[] partitionByNnz(int parts) {
+        return partitionByNnz(rowPtr, rows, parts);
+    }
+
+    // Same split for any CSR row pointer array (also used by FloatCSRMatrix)
+    static int[] partitionByNnz(int[] rowPtr, int rows, int parts) {
+        return partitionByNnz(i -> rowPtr[i], rows, parts);
+    }
+
+    // Same split for long row offsets, e.g. the mapped rowPtr of MappedCSRMatrix
+    static int[] partitionByNnz(IntToLongFunction rowPtr, int rows, int parts) {
+        parts = Math.max(1, Math.min(parts, rows));
+        long nnz = rowPtr.applyAsLong(rows);
+
+        int[] bounds = new int[parts + 1];
+        bounds[parts] = rows;
+
+        for (int p = 1; p < parts; p++) {
+            long target = nnz * p / parts;
+
+            // First row whose start offset reaches the target
+            int lo = bounds[p - 1], hi = rows;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (rowPtr.applyAsLong(mid) < target) lo = mid + 1;
+                else hi = mid;
+            }
+            bounds[p] = lo;
+        }
+
+        return bounds;
+    }
+
+    // Computes y[i] for rows in [from, to)
+    private void multiplyRows(double[] x, double[] y, int from, int to) {
+        for (int i = from; i < to; i++) {
             double sum = 0.0;
             for (int k = rowPtr[i]; k < rowPtr[i + 1]; k++) {
                 sum += values[k] * x[colIndex[k]];
             }
             y[i] = sum;
         }
+    }
 
-        return y;
+    // Computes the rows [from, to) of Y = A * X (X row-major)
+    private void multiplyRows(DenseMatrix X, DenseMatrix Y, int from, int to) {
+        int k = X.cols;
+        double[] xd = X.data, yd = Y.data;
+
+        for (int i = from; i < to; i++) {
+            int yRow = Y.offset + i * Y.rowStride;
+            Arrays.fill(yd, yRow, yRow + k, 0.0);
+
+            for (int p = rowPtr[i]; p < rowPtr[i + 1]; p++) {
+                double v = values[p];
+                int xRow = X.offset + colIndex[p] * X.rowStride;
+                for (int c = 0; c < k; c++) {
+                    yd[yRow + c] += v * xd[xRow + c];
+                }
+            }
+        }
+    }
+
+    private void checkBlocks(DenseMatrix X, DenseMatrix Y) {
+        if (X.rows != cols || Y.rows != rows || Y.cols != X.cols || !Y.isRowMajor()) {
+            throw new IllegalArgumentException("Cannot multiply " + rows + " x " + cols + " CSR by "
+                    + X.rows + " x " + X.cols + " into " + Y.rows + " x " + Y.cols);
+        }
+    }
+
+    private void checkVectors(double[] x, double[] y) {
+        if (x.length < cols || y.length < rows) {
+            throw new IllegalArgumentException("Vector sizes do not match a "
+                    + rows + " x " + cols + " matrix: x=" + x.length + ", y=" + y.length);
+        }
     }
 }
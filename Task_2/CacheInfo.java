@@ -0,0 +1,57 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Data cache sizes of the current host, in bytes.
+ *
+ * On Linux they are read from /sys/devices/system/cpu/cpu0/cache; on any
+ * other system (or if the files cannot be read) typical desktop values
+ * are used: 32 KB L1d, 512 KB L2 and 8 MB L3.
+ */
+public class CacheInfo {
+
+    public static final long L1 = detect(1, 32 * 1024);
+    public static final long L2 = detect(2, 512 * 1024);
+    public static final long L3 = detect(3, 8 * 1024 * 1024);
+
+    private static long detect(int level, long fallback) {
+        Path dir = Paths.get("/sys/devices/system/cpu/cpu0/cache");
+        if (!Files.isDirectory(dir)) return fallback;
+
+        for (int idx = 0; idx < 8; idx++) {
+            Path index = dir.resolve("index" + idx);
+            if (!Files.isDirectory(index)) break;
+
+            try {
+                int lvl = Integer.parseInt(read(index.resolve("level")));
+                String type = read(index.resolve("type"));
+                if (lvl != level || type.equals("Instruction")) continue;
+
+                return parseSize(read(index.resolve("size")));
+            } catch (IOException | NumberFormatException e) {
+                return fallback;
+            }
+        }
+        return fallback;
+    }
+
+    private static String read(Path p) throws IOException {
+        return new String(Files.readAllBytes(p)).trim();
+    }
+
+    // Sizes look like "48K", "2048K" or "32M"
+    private static long parseSize(String s) {
+        char unit = Character.toUpperCase(s.charAt(s.length() - 1));
+        if (Character.isDigit(unit)) return Long.parseLong(s);
+
+        long value = Long.parseLong(s.substring(0, s.length() - 1));
+        switch (unit) {
+            case 'K': return value * 1024;
+            case 'M': return value * 1024 * 1024;
+            case 'G': return value * 1024 * 1024 * 1024;
+            default: throw new NumberFormatException("Unknown cache size: " + s);
+        }
+    }
+}
@@ -0,0 +1,235 @@
+import java.io.Serializable;
+import java.util.Random;
+
+/**
+ * Dense matrix stored in a single contiguous double[] (row-major).
+ *
+ * Element (i, j) lives at data[offset + i * rowStride + j * colStride].
+ * A freshly allocated matrix has rowStride = cols and colStride = 1, but
+ * sub-block and transpose views share the same backing array and only
+ * change offset and strides, so no data is copied.
+ *
+ * This replaces the jagged double[][] layout: one object per matrix
+ * instead of n + 1, and rows are adjacent in memory so kernels can stream
+ * through them linearly.
+ */
+public class DenseMatrix implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    public final int rows;
+    public final int cols;
+
+    public final double[] data;
+    public final int offset;
+    public final int rowStride;
+    public final int colStride;
+
+    /**
+     * Allocates a new zero-filled rows x cols matrix.
+     */
+    public DenseMatrix(int rows, int cols) {
+        this(new double[Math.multiplyExact(rows, cols)], 0, rows, cols, cols, 1);
+    }
+
+    /**
+     * Wraps an existing row-major array of length rows * cols (no copy).
+     */
+    public DenseMatrix(int rows, int cols, double[] data) {
+        this(data, 0, rows, cols, cols, 1);
+        if (data.length < (long) rows * cols) {
+            throw new IllegalArgumentException("Backing array too small for " + rows + " x " + cols);
+        }
+    }
+
+    private DenseMatrix(double[] data, int offset, int rows, int cols, int rowStride, int colStride) {
+        if (rows < 0 || cols < 0) {
+            throw new IllegalArgumentException("Negative dimensions: " + rows + " x " + cols);
+        }
+        this.data = data;
+        this.offset = offset;
+        this.rows = rows;
+        this.cols = cols;
+        this.rowStride = rowStride;
+        this.colStride = colStride;
+    }
+
+    /**
+     * Copies a jagged double[][] into a new flat matrix.
+     */
+    public static DenseMatrix of(double[][] M) {
+        int rows = M.length;
+        int cols = rows == 0 ? 0 : M[0].length;
+        DenseMatrix R = new DenseMatrix(rows, cols);
+
+        for (int i = 0; i < rows; i++) {
+            System.arraycopy(M[i], 0, R.data, i * cols, cols);
+        }
+        return R;
+    }
+
+    /**
+     * Generates a rows x cols matrix filled with random doubles in [0, 1).
+     */
+    public static DenseMatrix random(int rows, int cols, Random rand) {
+        DenseMatrix R = new DenseMatrix(rows, cols);
+        for (int i = 0; i < R.data.length; i++) {
+            R.data[i] = rand.nextDouble();
+        }
+        return R;
+    }
+
+    /**
+     * Index of element (i, j) in the backing array.
+     */
+    public int index(int i, int j) {
+        return offset + i * rowStride + j * colStride;
+    }
+
+    public double get(int i, int j) {
+        return data[index(i, j)];
+    }
+
+    public void set(int i, int j, double v) {
+        data[index(i, j)] = v;
+    }
+
+    /**
+     * Returns a view of the rows x cols block starting at (row0, col0).
+     * Writes through the view are visible in this matrix.
+     */
+    public DenseMatrix view(int row0, int col0, int rows, int cols) {
+        if (row0 < 0 || col0 < 0 || rows < 0 || cols < 0
+                || row0 + rows > this.rows || col0 + cols > this.cols) {
+            throw new IndexOutOfBoundsException("Block (" + row0 + ", " + col0 + ", " + rows + " x " + cols
+                    + ") outside " + this.rows + " x " + this.cols);
+        }
+        return new DenseMatrix(data, index(row0, col0), rows, cols, rowStride, colStride);
+    }
+
+    /**
+     * Returns a transposed view (strides are swapped, no data is moved).
+     */
+    public DenseMatrix transpose() {
+        return new DenseMatrix(data, offset, cols, rows, colStride, rowStride);
+    }
+
+    /**
+     * True when each row is a contiguous run in the backing array,
+     * which is what the flat kernels need for their inner loop.
+     */
+    public boolean isRowMajor() {
+        return colStride == 1;
+    }
+
+    /**
+     * Returns this matrix if it is already row-major, otherwise a compact copy.
+     * Kernels call this on their inputs so transpose views still work.
+     */
+    public DenseMatrix rowMajor() {
+        return isRowMajor() ? this : copy();
+    }
+
+    /**
+     * Returns a compact row-major copy of this matrix (or view).
+     */
+    public DenseMatrix copy() {
+        DenseMatrix R = new DenseMatrix(rows, cols);
+
+        if (isRowMajor()) {
+            for (int i = 0; i < rows; i++) {
+                System.arraycopy(data, offset + i * rowStride, R.data, i * cols, cols);
+            }
+        } else {
+            for (int i = 0; i < rows; i++) {
+                int src = offset + i * rowStride;
+                int dst = i * cols;
+                for (int j = 0; j < cols; j++) {
+                    R.data[dst + j] = data[src + j * colStride];
+                }
+            }
+        }
+        return R;
+    }
+
+    /**
+     * Copies this matrix (or view) into dst, which must have the same shape.
+     * Used to assemble blocks computed elsewhere into a larger result.
+     */
+    public void copyTo(DenseMatrix dst) {
+        if (dst.rows != rows || dst.cols != cols) {
+            throw new IllegalArgumentException("Cannot copy " + rows + " x " + cols
+                    + " into " + dst.rows + " x " + dst.cols);
+        }
+        if (isRowMajor() && dst.isRowMajor()) {
+            for (int i = 0; i < rows; i++) {
+                System.arraycopy(data, offset + i * rowStride, dst.data, dst.offset + i * dst.rowStride, cols);
+            }
+        } else {
+            for (int i = 0; i < rows; i++) {
+                for (int j = 0; j < cols; j++) {
+                    dst.set(i, j, get(i, j));
+                }
+            }
+        }
+    }
+
+    /**
+     * Copies this matrix back into a jagged double[][].
+     */
+    public double[][] toArray() {
+        double[][] M = new double[rows][cols];
+        for (int i = 0; i < rows; i++) {
+            for (int j = 0; j < cols; j++) {
+                M[i][j] = get(i, j);
+            }
+        }
+        return M;
+    }
+
+    /**
+     * Checks that A (m x k) and B (k x n) can be multiplied.
+     */
+    static void checkMultiply(DenseMatrix A, DenseMatrix B) {
+        if (A.cols != B.rows) {
+            throw new IllegalArgumentException("Cannot multiply " + A.rows + " x " + A.cols
+                    + " by " + B.rows + " x " + B.cols);
+        }
+    }
+
+    /**
+     * Same check for jagged matrices, which must not be ragged.
+     * An empty A (0 rows) multiplies any B.
+     */
+    static void checkMultiply(double[][] A, double[][] B) {
+        int colsA = cols(A), colsB = cols(B);
+        if (A.length > 0 && colsA != B.length) {
+            throw new IllegalArgumentException("Cannot multiply " + A.length + " x " + colsA
+                    + " by " + B.length + " x " + colsB);
+        }
+    }
+
+    /**
+     * Checks that A (m x k) can be multiplied by a vector of length x.
+     */
+    static void checkMultiply(DenseMatrix A, double[] x) {
+        if (A.cols != x.length) {
+            throw new IllegalArgumentException("Cannot multiply " + A.rows + " x " + A.cols
+                    + " by a vector of length " + x.length);
+        }
+    }
+
+    /**
+     * Number of columns of a jagged matrix (0 when it has no rows).
+     * Throws when the rows have different lengths.
+     */
+    static int cols(double[][] M) {
+        int cols = M.length == 0 ? 0 : M[0].length;
+        for (int i = 1; i < M.length; i++) {
+            if (M[i].length != cols) {
+                throw new IllegalArgumentException("Ragged matrix: row " + i + " has " + M[i].length
+                        + " columns, row 0 has " + cols);
+            }
+        }
+        return cols;
+    }
+}
@@ -0,0 +1,196 @@
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * CSR matrix with single-precision values.
+ *
+ * A non-zero takes 8 bytes (float value + int column) instead of 12, so
+ * SpMV and SpMM, which are bound by memory bandwidth, read a third less.
+ * of(CSRMatrix) shares the rowPtr and colIndex arrays of the double matrix
+ * and only rounds the values.
+ *
+ * Like FloatMatrix, every product comes in two modes: float sums into a
+ * float result, or mixed (double sums into a double result, see the
+ * multiply(float[], double[]) and multiplyMixed overloads). Parallel
+ * versions split the rows by non-zeros like CSRMatrix.
+ */
+public class FloatCSRMatrix {
+
+    public int rows;
+    public int cols;
+
+    public float[] values;
+    public int[] colIndex;
+    public int[] rowPtr;
+
+    /**
+     * Rounds the values of A to floats, sharing its structure arrays.
+     */
+    public static FloatCSRMatrix of(CSRMatrix A) {
+        FloatCSRMatrix R = new FloatCSRMatrix();
+        R.rows = A.rows;
+        R.cols = A.cols;
+        R.rowPtr = A.rowPtr;
+        R.colIndex = A.colIndex;
+        R.values = new float[A.nnz()];
+        for (int p = 0; p < R.values.length; p++) {
+            R.values[p] = (float) A.values[p];
+        }
+        return R;
+    }
+
+    public int nnz() {
+        return rowPtr[rows];
+    }
+
+    /**
+     * y = A * x in float.
+     */
+    public float[] multiply(float[] x) {
+        float[] y = new float[rows];
+        multiply(x, y);
+        return y;
+    }
+
+    public void multiply(float[] x, float[] y) {
+        checkVectors(x.length, y.length);
+        multiplyRows(x, y, 0, rows);
+    }
+
+    /**
+     * y = A * x with double sums (mixed precision).
+     */
+    public void multiply(float[] x, double[] y) {
+        checkVectors(x.length, y.length);
+        multiplyRows(x, y, 0, rows);
+    }
+
+    public void multiplyParallel(float[] x, float[] y, int parts) {
+        checkVectors(x.length, y.length);
+        int[] bounds = CSRMatrix.partitionByNnz(rowPtr, rows, parts);
+
+        IntStream.range(0, bounds.length - 1).parallel().forEach(p ->
+                multiplyRows(x, y, bounds[p], bounds[p + 1]));
+    }
+
+    public void multiplyParallel(float[] x, double[] y, int parts) {
+        checkVectors(x.length, y.length);
+        int[] bounds = CSRMatrix.partitionByNnz(rowPtr, rows, parts);
+
+        IntStream.range(0, bounds.length - 1).parallel().forEach(p ->
+                multiplyRows(x, y, bounds[p], bounds[p + 1]));
+    }
+
+    /**
+     * Sparse-dense product Y = A * X in float (X is cols x k).
+     */
+    public FloatMatrix multiply(FloatMatrix X) {
+        checkBlock(X);
+        FloatMatrix Y = new FloatMatrix(rows, X.cols);
+        multiplyRows(X, Y, 0, rows);
+        return Y;
+    }
+
+    /**
+     * Y = A * X with double sums into a DenseMatrix (mixed precision).
+     */
+    public DenseMatrix multiplyMixed(FloatMatrix X) {
+        checkBlock(X);
+        DenseMatrix Y = new DenseMatrix(rows, X.cols);
+        multiplyRows(X, Y, 0, rows);
+        return Y;
+    }
+
+    public FloatMatrix multiplyParallel(FloatMatrix X, int parts) {
+        checkBlock(X);
+        FloatMatrix Y = new FloatMatrix(rows, X.cols);
+        int[] bounds = CSRMatrix.partitionByNnz(rowPtr, rows, parts);
+
+        IntStream.range(0, bounds.length - 1).parallel().forEach(p ->
+                multiplyRows(X, Y, bounds[p], bounds[p + 1]));
+        return Y;
+    }
+
+    public DenseMatrix multiplyMixedParallel(FloatMatrix X, int parts) {
+        checkBlock(X);
+        DenseMatrix Y = new DenseMatrix(rows, X.cols);
+        int[] bounds = CSRMatrix.partitionByNnz(rowPtr, rows, parts);
+
+        IntStream.range(0, bounds.length - 1).parallel().forEach(p ->
+                multiplyRows(X, Y, bounds[p], bounds[p + 1]));
+        return Y;
+    }
+
+    // Computes y[i] for rows in [from, to)
+    private void multiplyRows(float[] x, float[] y, int from, int to) {
+        for (int i = from; i < to; i++) {
+            float sum = 0.0f;
+            for (int k = rowPtr[i]; k < rowPtr[i + 1]; k++) {
+                sum += values[k] * x[colIndex[k]];
+            }
+            y[i] = sum;
+        }
+    }
+
+    private void multiplyRows(float[] x, double[] y, int from, int to) {
+        for (int i = from; i < to; i++) {
+            double sum = 0.0;
+            for (int k = rowPtr[i]; k < rowPtr[i + 1]; k++) {
+                sum += (double) values[k] * x[colIndex[k]];
+            }
+            y[i] = sum;
+        }
+    }
+
+    // Computes the rows [from, to) of Y = A * X
+    private void multiplyRows(FloatMatrix X, FloatMatrix Y, int from, int to) {
+        int k = X.cols;
+        float[] xd = X.data, yd = Y.data;
+
+        for (int i = from; i < to; i++) {
+            int yRow = i * k;
+            Arrays.fill(yd, yRow, yRow + k, 0.0f);
+
+            for (int p = rowPtr[i]; p < rowPtr[i + 1]; p++) {
+                float v = values[p];
+                int xRow = colIndex[p] * k;
+                for (int c = 0; c < k; c++) {
+                    yd[yRow + c] += v * xd[xRow + c];
+                }
+            }
+        }
+    }
+
+    private void multiplyRows(FloatMatrix X, DenseMatrix Y, int from, int to) {
+        int k = X.cols;
+        float[] xd = X.data;
+        double[] yd = Y.data;
+
+        for (int i = from; i < to; i++) {
+            int yRow = i * k;
+            Arrays.fill(yd, yRow, yRow + k, 0.0);
+
+            for (int p = rowPtr[i]; p < rowPtr[i + 1]; p++) {
+                double v = values[p];
+                int xRow = colIndex[p] * k;
+                for (int c = 0; c < k; c++) {
+                    yd[yRow + c] += v * xd[xRow + c];
+                }
+            }
+        }
+    }
+
+    private void checkBlock(FloatMatrix X) {
+        if (X.rows != cols) {
+            throw new IllegalArgumentException("Cannot multiply " + rows + " x " + cols + " CSR by "
+                    + X.rows + " x " + X.cols);
+        }
+    }
+
+    private void checkVectors(int x, int y) {
+        if (x < cols || y < rows) {
+            throw new IllegalArgumentException("Vector sizes do not match a "
+                    + rows + " x " + cols + " matrix: x=" + x + ", y=" + y);
+        }
+    }
+}
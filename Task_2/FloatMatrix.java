@@ -0,0 +1,146 @@
+import java.io.Serializable;
+import java.util.Random;
+
+/**
+ * Dense matrix of floats stored in a single contiguous float[] (row-major).
+ *
+ * Single precision halves the memory traffic of DenseMatrix and fits twice
+ * as many values into every cache line and SIMD register, at about 7
+ * significant digits instead of 16. The kernels come in two modes:
+ *  - float: operands and sums in float, the result is a FloatMatrix,
+ *  - mixed: operands in float, sums in double, the result is a DenseMatrix.
+ *    A and B cost the same memory traffic as in float mode, but rounding
+ *    no longer builds up along k, so only the float rounding of the inputs
+ *    remains.
+ * relativeError compares either result with the double reference.
+ */
+public class FloatMatrix implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    public final int rows;
+    public final int cols;
+    public final float[] data;
+
+    /**
+     * Allocates a new zero-filled rows x cols matrix.
+     */
+    public FloatMatrix(int rows, int cols) {
+        this(rows, cols, new float[Math.multiplyExact(rows, cols)]);
+    }
+
+    /**
+     * Wraps an existing row-major array of length rows * cols (no copy).
+     */
+    public FloatMatrix(int rows, int cols, float[] data) {
+        if (rows < 0 || cols < 0) {
+            throw new IllegalArgumentException("Negative dimensions: " + rows + " x " + cols);
+        }
+        if (data.length < (long) rows * cols) {
+            throw new IllegalArgumentException("Backing array too small for " + rows + " x " + cols);
+        }
+        this.rows = rows;
+        this.cols = cols;
+        this.data = data;
+    }
+
+    /**
+     * Rounds a double matrix (or view) to the nearest floats.
+     */
+    public static FloatMatrix of(DenseMatrix M) {
+        FloatMatrix R = new FloatMatrix(M.rows, M.cols);
+        for (int i = 0; i < M.rows; i++) {
+            for (int j = 0; j < M.cols; j++) {
+                R.data[i * M.cols + j] = (float) M.get(i, j);
+            }
+        }
+        return R;
+    }
+
+    /**
+     * Generates a rows x cols matrix filled with random floats in [0, 1).
+     */
+    public static FloatMatrix random(int rows, int cols, Random rand) {
+        FloatMatrix R = new FloatMatrix(rows, cols);
+        for (int i = 0; i < R.data.length; i++) {
+            R.data[i] = rand.nextFloat();
+        }
+        return R;
+    }
+
+    public float get(int i, int j) {
+        return data[i * cols + j];
+    }
+
+    public void set(int i, int j, float v) {
+        data[i * cols + j] = v;
+    }
+
+    /**
+     * Widens this matrix to a new DenseMatrix (exact).
+     */
+    public DenseMatrix toDense() {
+        DenseMatrix R = new DenseMatrix(rows, cols);
+        for (int i = 0; i < R.data.length; i++) {
+            R.data[i] = data[i];
+        }
+        return R;
+    }
+
+    /**
+     * Largest difference to reference relative to the largest entry of
+     * reference, max |C - ref| / max |ref| (0 when both are zero).
+     */
+    public static double relativeError(FloatMatrix C, DenseMatrix reference) {
+        return relativeError(C.toDense(), reference);
+    }
+
+    public static double relativeError(DenseMatrix C, DenseMatrix reference) {
+        if (C.rows != reference.rows || C.cols != reference.cols) {
+            throw new IllegalArgumentException("Cannot compare " + C.rows + " x " + C.cols
+                    + " with " + reference.rows + " x " + reference.cols);
+        }
+        double diff = 0.0, scale = 0.0;
+        for (int i = 0; i < C.rows; i++) {
+            for (int j = 0; j < C.cols; j++) {
+                double ref = reference.get(i, j);
+                diff = Math.max(diff, Math.abs(C.get(i, j) - ref));
+                scale = Math.max(scale, Math.abs(ref));
+            }
+        }
+        return scale == 0.0 ? diff : diff / scale;
+    }
+
+    /**
+     * Same measure for vectors, e.g. the result of a float SpMV.
+     */
+    public static double relativeError(float[] y, double[] reference) {
+        double[] wide = new double[y.length];
+        for (int i = 0; i < y.length; i++) {
+            wide[i] = y[i];
+        }
+        return relativeError(wide, reference);
+    }
+
+    public static double relativeError(double[] y, double[] reference) {
+        if (y.length != reference.length) {
+            throw new IllegalArgumentException("Cannot compare vectors of length " + y.length
+                    + " and " + reference.length);
+        }
+        double diff = 0.0, scale = 0.0;
+        for (int i = 0; i < y.length; i++) {
+            diff = Math.max(diff, Math.abs(y[i] - reference[i]));
+            scale = Math.max(scale, Math.abs(reference[i]));
+        }
+        return scale == 0.0 ? diff : diff / scale;
+    }
+
+    /**
+     * Checks that A (m x k) and B (k x n) can be multiplied.
+     */
+    static void checkMultiply(FloatMatrix A, FloatMatrix B) {
+        if (A.cols != B.rows) {
+            throw new IllegalArgumentException("Cannot multiply " + A.rows + " x " + A.cols
+                    + " by " + B.rows + " x " + B.cols);
+        }
+    }
+}
@@ -0,0 +1,250 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.stream.IntStream;
+
+/**
+ * Read-only CSR matrix that works directly on a memory-mapped binary file.
+ *
+ * File layout (little-endian):
+ *   header   32 bytes: magic "CSRB", version, rows, cols, nnz (long), reserved
+ *   rowPtr   (rows + 1) ints
+ *   colIndex nnz ints
+ *   padding  to an 8-byte boundary
+ *   values   nnz doubles
+ *
+ * The file is written once with write(...) and opened with open(...).
+ * Opening only maps the file: the arrays are never copied to the heap, and
+ * the OS pages data in on demand. A single mapping is limited to 2 GB, so
+ * each section is mapped as a list of segments of SEGMENT elements.
+ */
+public class MappedCSRMatrix {
+
+    private static final int MAGIC = 0x42525343; // "CSRB" in little-endian
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 32;
+
+    // Elements per mapped segment (512 MB of ints, 1 GB of doubles)
+    private static final int SEGMENT_SHIFT = 27;
+    private static final int SEGMENT = 1 << SEGMENT_SHIFT;
+    private static final int SEGMENT_MASK = SEGMENT - 1;
+
+    public final int rows;
+    public final int cols;
+    public final long nnz;
+
+    private final IntBuffer[] rowPtr;
+    private final IntBuffer[] colIndex;
+    private final DoubleBuffer[] values;
+
+    private MappedCSRMatrix(int rows, int cols, long nnz,
+                            IntBuffer[] rowPtr, IntBuffer[] colIndex, DoubleBuffer[] values) {
+        this.rows = rows;
+        this.cols = cols;
+        this.nnz = nnz;
+        this.rowPtr = rowPtr;
+        this.colIndex = colIndex;
+        this.values = values;
+    }
+
+    /**
+     * Writes M to filename in the binary layout described above.
+     */
+    public static void write(CSRMatrix M, String filename) throws IOException {
+        long nnz = M.rowPtr[M.rows];
+
+        try (FileChannel ch = FileChannel.open(Paths.get(filename), StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(MAGIC).putInt(VERSION).putInt(M.rows).putInt(M.cols).putLong(nnz).putLong(0L);
+            header.flip();
+            writeFully(ch, header);
+
+            ByteBuffer buf = ByteBuffer.allocateDirect(1 << 20).order(ByteOrder.LITTLE_ENDIAN);
+
+            writeInts(ch, buf, M.rowPtr, M.rows + 1);
+            writeInts(ch, buf, M.colIndex, (int) nnz);
+
+            long pad = valuesOffset(M.rows, nnz) - ch.position();
+            writeFully(ch, ByteBuffer.allocate((int) pad));
+
+            for (int i = 0; i < nnz; ) {
+                buf.clear();
+                int n = (int) Math.min(buf.capacity() / 8, nnz - i);
+                buf.asDoubleBuffer().put(M.values, i, n);
+                buf.limit(n * 8);
+                writeFully(ch, buf);
+                i += n;
+            }
+        }
+    }
+
+    /**
+     * Maps a file written by write(...). No matrix data is read here.
+     */
+    public static MappedCSRMatrix open(String filename) throws IOException {
+        try (FileChannel ch = FileChannel.open(Paths.get(filename), StandardOpenOption.READ)) {
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            while (header.hasRemaining() && ch.read(header) > 0) { }
+            header.flip();
+
+            if (header.remaining() < HEADER_BYTES || header.getInt() != MAGIC) {
+                throw new IOException("Not a binary CSR file: " + filename);
+            }
+            int version = header.getInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported binary CSR version " + version + ": " + filename);
+            }
+            int rows = header.getInt();
+            int cols = header.getInt();
+            long nnz = header.getLong();
+
+            long expected = valuesOffset(rows, nnz) + nnz * 8;
+            if (ch.size() < expected) {
+                throw new IOException("Truncated binary CSR file: " + filename);
+            }
+
+            IntBuffer[] rowPtr = mapInts(ch, HEADER_BYTES, rows + 1L);
+            IntBuffer[] colIndex = mapInts(ch, HEADER_BYTES + (rows + 1L) * 4, nnz);
+            DoubleBuffer[] values = mapDoubles(ch, valuesOffset(rows, nnz), nnz);
+
+            return new MappedCSRMatrix(rows, cols, nnz, rowPtr, colIndex, values);
+        }
+    }
+
+    /**
+     * Performs y = A * x into a caller-supplied vector.
+     */
+    public void multiply(double[] x, double[] y) {
+        checkVectors(x.length, y.length);
+        multiplyRows(x, y, 0, rows);
+    }
+
+    /**
+     * Parallel y = A * x, with rows split by non-zero count as in CSRMatrix.
+     */
+    public void multiplyParallel(double[] x, double[] y, int parts) {
+        checkVectors(x.length, y.length);
+        int[] bounds = CSRMatrix.partitionByNnz(this::rowPtr, rows, parts);
+
+        IntStream.range(0, bounds.length - 1).parallel().forEach(p ->
+                multiplyRows(x, y, bounds[p], bounds[p + 1]));
+    }
+
+    /**
+     * Copies the mapped data into a regular on-heap CSRMatrix.
+     */
+    public CSRMatrix toCSRMatrix() {
+        if (nnz > Integer.MAX_VALUE - 8) {
+            throw new IllegalStateException("Too many non-zeros for an on-heap CSRMatrix: " + nnz);
+        }
+
+        CSRMatrix M = new CSRMatrix();
+        M.rows = rows;
+        M.cols = cols;
+        M.rowPtr = new int[rows + 1];
+        M.colIndex = new int[(int) nnz];
+        M.values = new double[(int) nnz];
+
+        copy(rowPtr, M.rowPtr);
+        copy(colIndex, M.colIndex);
+        for (int s = 0, off = 0; s < values.length; s++) {
+            DoubleBuffer seg = values[s].duplicate();
+            int n = seg.remaining();
+            seg.get(M.values, off, n);
+            off += n;
+        }
+        return M;
+    }
+
+    private void multiplyRows(double[] x, double[] y, int from, int to) {
+        long start = rowPtr(from);
+
+        for (int i = from; i < to; i++) {
+            long end = rowPtr(i + 1);
+            double sum = 0.0;
+
+            for (long k = start; k < end; k++) {
+                int seg = (int) (k >>> SEGMENT_SHIFT);
+                int idx = (int) k & SEGMENT_MASK;
+                sum += values[seg].get(idx) * x[colIndex[seg].get(idx)];
+            }
+            y[i] = sum;
+            start = end;
+        }
+    }
+
+    private long rowPtr(int i) {
+        return rowPtr[i >>> SEGMENT_SHIFT].get(i & SEGMENT_MASK);
+    }
+
+    private void checkVectors(int x, int y) {
+        if (x < cols || y < rows) {
+            throw new IllegalArgumentException("Vector sizes do not match a "
+                    + rows + " x " + cols + " matrix: x=" + x + ", y=" + y);
+        }
+    }
+
+    // Values start after the two int sections, rounded up to 8 bytes
+    private static long valuesOffset(int rows, long nnz) {
+        long end = HEADER_BYTES + (rows + 1L + nnz) * 4;
+        return (end + 7) & ~7L;
+    }
+
+    private static IntBuffer[] mapInts(FileChannel ch, long offset, long count) throws IOException {
+        int segments = (int) ((count + SEGMENT - 1) >>> SEGMENT_SHIFT);
+        IntBuffer[] out = new IntBuffer[segments];
+
+        for (int s = 0; s < segments; s++) {
+            long n = Math.min(SEGMENT, count - ((long) s << SEGMENT_SHIFT));
+            out[s] = ch.map(FileChannel.MapMode.READ_ONLY, offset + ((long) s << SEGMENT_SHIFT) * 4, n * 4)
+                    .order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+        }
+        return out;
+    }
+
+    private static DoubleBuffer[] mapDoubles(FileChannel ch, long offset, long count) throws IOException {
+        int segments = (int) ((count + SEGMENT - 1) >>> SEGMENT_SHIFT);
+        DoubleBuffer[] out = new DoubleBuffer[segments];
+
+        for (int s = 0; s < segments; s++) {
+            long n = Math.min(SEGMENT, count - ((long) s << SEGMENT_SHIFT));
+            out[s] = ch.map(FileChannel.MapMode.READ_ONLY, offset + ((long) s << SEGMENT_SHIFT) * 8, n * 8)
+                    .order(ByteOrder.LITTLE_ENDIAN).asDoubleBuffer();
+        }
+        return out;
+    }
+
+    private static void copy(IntBuffer[] src, int[] dst) {
+        for (int s = 0, off = 0; s < src.length; s++) {
+            IntBuffer seg = src[s].duplicate();
+            int n = seg.remaining();
+            seg.get(dst, off, n);
+            off += n;
+        }
+    }
+
+    private static void writeInts(FileChannel ch, ByteBuffer buf, int[] src, int count) throws IOException {
+        for (int i = 0; i < count; ) {
+            buf.clear();
+            int n = Math.min(buf.capacity() / 4, count - i);
+            buf.asIntBuffer().put(src, i, n);
+            buf.limit(n * 4);
+            writeFully(ch, buf);
+            i += n;
+        }
+    }
+
+    private static void writeFully(FileChannel ch, ByteBuffer buf) throws IOException {
+        while (buf.hasRemaining()) {
+            ch.write(buf);
+        }
+    }
+}
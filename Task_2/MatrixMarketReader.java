@@ -1,9 +1,22 @@
 import java.io.BufferedReader;
 import java.io.FileReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.stream.IntStream;
 
 /**
  * Utility class to read Matrix Market (.mtx) files and convert them into CSR format.
  * Supports real-valued sparse matrices in coordinate (triplet) format.
+ *
+ * readCSR is the simple line-by-line reader. readCSRParallel memory-maps the
+ * file and parses it in parallel straight from bytes, and also honours the
+ * banner qualifiers (real/integer/pattern, general/symmetric/skew-symmetric).
  */
 public class MatrixMarketReader {
 
@@ -83,4 +96,411 @@ public class MatrixMarketReader {
 
         return M;
     }
+
+    // Upper bound for one mapped chunk (a single mapping is limited to 2 GB)
+    private static final long MAX_CHUNK_BYTES = 1L << 30;
+
+    // Chunks smaller than this are not worth a separate task
+    private static final long MIN_CHUNK_BYTES = 1L << 16;
+
+    // Powers of ten that are exact doubles, for the fast parsing path
+    private static final double[] POW10 = new double[23];
+    static {
+        POW10[0] = 1.0;
+        for (int i = 1; i < POW10.length; i++) POW10[i] = POW10[i - 1] * 10.0;
+    }
+
+    /**
+     * Parallel reader for large files.
+     *
+     * The data section is memory-mapped and split into chunks at newline
+     * boundaries. It is parsed twice, in parallel per chunk:
+     *  1. count the entries of every row (per chunk),
+     *  2. write each entry straight into its CSR slot.
+     * Between the passes the per-chunk counts are merged into rowPtr and
+     * turned into per-chunk write cursors, so no triplet arrays are needed
+     * and entries keep their file order inside each row.
+     *
+     * Memory overhead is one int[rows] per chunk.
+     */
+    public static CSRMatrix readCSRParallel(String filename) throws IOException {
+        try (FileChannel ch = FileChannel.open(Paths.get(filename), StandardOpenOption.READ)) {
+
+            Header h = readHeader(ch);
+            long dataBytes = ch.size() - h.dataStart;
+
+            int threads = Runtime.getRuntime().availableProcessors();
+            long chunks = Math.max(threads, (dataBytes + MAX_CHUNK_BYTES - 1) / MAX_CHUNK_BYTES);
+            chunks = Math.max(1, Math.min(chunks, dataBytes / MIN_CHUNK_BYTES + 1));
+
+            long[] bounds = splitAtNewlines(ch, h.dataStart, ch.size(), (int) chunks);
+            int parts = bounds.length - 1;
+
+            MappedByteBuffer[] maps = new MappedByteBuffer[parts];
+            for (int c = 0; c < parts; c++) {
+                maps[c] = ch.map(FileChannel.MapMode.READ_ONLY, bounds[c], bounds[c + 1] - bounds[c]);
+            }
+
+            // Pass 1: entries per row, per chunk
+            int[][] counts = new int[parts][];
+            long[] entries = new long[parts];
+            run(parts, c -> {
+                counts[c] = new int[h.rows];
+                entries[c] = countChunk(maps[c], h, counts[c]);
+            });
+
+            long found = 0;
+            for (long e : entries) found += e;
+            if (found != h.nnz) {
+                throw new IOException("Expected " + h.nnz + " entries in " + filename + ", found " + found);
+            }
+
+            // Merge: rowPtr, and counts[c][r] becomes chunk c's first slot in row r
+            int[] rowPtr = new int[h.rows + 1];
+            long pos = 0;
+            for (int r = 0; r < h.rows; r++) {
+                rowPtr[r] = (int) pos;
+                for (int c = 0; c < parts; c++) {
+                    int n = counts[c][r];
+                    counts[c][r] = (int) pos;
+                    pos += n;
+                }
+                if (pos > Integer.MAX_VALUE) {
+                    throw new IOException("Too many non-zeros for CSR int indices: " + filename);
+                }
+            }
+            rowPtr[h.rows] = (int) pos;
+
+            // Pass 2: fill values and column indices
+            double[] values = new double[(int) pos];
+            int[] colIndex = new int[(int) pos];
+            run(parts, c -> fillChunk(maps[c], h, counts[c], colIndex, values));
+
+            CSRMatrix M = new CSRMatrix();
+            M.rows = h.rows;
+            M.cols = h.cols;
+            M.values = values;
+            M.colIndex = colIndex;
+            M.rowPtr = rowPtr;
+
+            return M;
+        }
+    }
+
+    // Size line and banner qualifiers of a coordinate file
+    private static class Header {
+        int rows, cols;
+        long nnz;
+        long dataStart;
+        boolean pattern;
+        boolean symmetric;
+        boolean skew;
+    }
+
+    /**
+     * Reads the banner, comments and size line. Files without a banner are
+     * treated as "coordinate real general", like readCSR does.
+     */
+    private static Header readHeader(FileChannel ch) throws IOException {
+        Header h = new Header();
+        ByteBuffer buf = ByteBuffer.allocate(8192);
+        long[] pos = {0};
+
+        String line = readLine(ch, buf, pos);
+        if (line != null && line.regionMatches(true, 0, "%%MatrixMarket", 0, 14)) {
+            String[] banner = line.trim().toLowerCase().split("\\s+");
+            if (banner.length < 5 || !banner[1].equals("matrix") || !banner[2].equals("coordinate")) {
+                throw new IOException("Only 'matrix coordinate' files are supported: " + line);
+            }
+            switch (banner[3]) {
+                case "real":
+                case "integer":
+                    break;
+                case "pattern":
+                    h.pattern = true;
+                    break;
+                default:
+                    throw new IOException("Unsupported field type: " + banner[3]);
+            }
+            switch (banner[4]) {
+                case "general":
+                    break;
+                case "symmetric":
+                    h.symmetric = true;
+                    break;
+                case "skew-symmetric":
+                    h.symmetric = true;
+                    h.skew = true;
+                    break;
+                default:
+                    throw new IOException("Unsupported symmetry: " + banner[4]);
+            }
+            line = readLine(ch, buf, pos);
+        }
+
+        // Skip comments and blank lines
+        while (line != null && (line.startsWith("%") || line.trim().isEmpty())) {
+            line = readLine(ch, buf, pos);
+        }
+        if (line == null) {
+            throw new IOException("Invalid Matrix Market file: missing header.");
+        }
+
+        String[] size = line.trim().split("\\s+");
+        h.rows = Integer.parseInt(size[0]);
+        h.cols = Integer.parseInt(size[1]);
+        h.nnz = Long.parseLong(size[2]);
+        h.dataStart = pos[0];
+
+        return h;
+    }
+
+    // Reads one line starting at pos[0] and advances pos[0] past its newline
+    private static String readLine(FileChannel ch, ByteBuffer buf, long[] pos) throws IOException {
+        StringBuilder sb = new StringBuilder();
+
+        while (true) {
+            buf.clear();
+            int n = ch.read(buf, pos[0]);
+            if (n <= 0) {
+                return sb.length() == 0 ? null : sb.toString();
+            }
+            for (int i = 0; i < n; i++) {
+                byte b = buf.get(i);
+                if (b == '\n') {
+                    pos[0] += i + 1;
+                    return sb.toString();
+                }
+                if (b != '\r') sb.append((char) b);
+            }
+            pos[0] += n;
+        }
+    }
+
+    /**
+     * Splits [start, end) into about parts ranges, moving every inner
+     * boundary forward to just after the next newline.
+     */
+    private static long[] splitAtNewlines(FileChannel ch, long start, long end, int parts) throws IOException {
+        long[] bounds = new long[parts + 1];
+        bounds[0] = start;
+        bounds[parts] = end;
+
+        ByteBuffer buf = ByteBuffer.allocate(4096);
+        for (int p = 1; p < parts; p++) {
+            long pos = Math.max(bounds[p - 1], start + (end - start) * p / parts);
+            long boundary = end;
+
+            search:
+            while (pos < end) {
+                buf.clear();
+                int n = ch.read(buf, pos);
+                if (n <= 0) break;
+                for (int i = 0; i < n; i++) {
+                    if (buf.get(i) == '\n') {
+                        boundary = pos + i + 1;
+                        break search;
+                    }
+                }
+                pos += n;
+            }
+            bounds[p] = boundary;
+        }
+
+        return bounds;
+    }
+
+    // Pass 1: counts stored entries per row (mirrored entries included)
+    private static long countChunk(ByteBuffer buf, Header h, int[] counts) {
+        EntryParser p = new EntryParser(buf);
+        long n = 0;
+
+        while (p.nextEntry()) {
+            int i = p.nextIndex(h.rows);
+            int j = p.nextIndex(h.cols);
+            p.skipLine();
+
+            counts[i]++;
+            if (h.symmetric && i != j) counts[j]++;
+            n++;
+        }
+        return n;
+    }
+
+    // Pass 2: writes entries at the chunk's cursors (cursor[r] = next slot of row r)
+    private static void fillChunk(ByteBuffer buf, Header h, int[] cursor, int[] colIndex, double[] values) {
+        EntryParser p = new EntryParser(buf);
+
+        while (p.nextEntry()) {
+            int i = p.nextIndex(h.rows);
+            int j = p.nextIndex(h.cols);
+            double v = h.pattern ? 1.0 : p.nextDouble();
+            p.skipLine();
+
+            int d = cursor[i]++;
+            colIndex[d] = j;
+            values[d] = v;
+
+            if (h.symmetric && i != j) {
+                d = cursor[j]++;
+                colIndex[d] = i;
+                values[d] = h.skew ? -v : v;
+            }
+        }
+    }
+
+    // Runs body(0..parts-1) on the common pool, rethrowing I/O failures
+    private interface ChunkBody {
+        void accept(int c) throws IOException;
+    }
+
+    private static void run(int parts, ChunkBody body) throws IOException {
+        try {
+            IntStream.range(0, parts).parallel().forEach(c -> {
+                try {
+                    body.accept(c);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Parses "row col [value]" lines directly from bytes, without creating
+     * Strings. Indices are converted to 0-based.
+     */
+    private static class EntryParser {
+        private final ByteBuffer buf;
+        private final int limit;
+        private int pos;
+
+        EntryParser(ByteBuffer buf) {
+            this.buf = buf;
+            this.limit = buf.limit();
+        }
+
+        // Moves to the next data line, skipping blank and '%' comment lines
+        boolean nextEntry() {
+            while (pos < limit) {
+                byte b = buf.get(pos);
+                if (b == '%') {
+                    skipLine();
+                } else if (b == ' ' || b == '\t' || b == '\r' || b == '\n') {
+                    pos++;
+                } else {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        void skipLine() {
+            while (pos < limit && buf.get(pos) != '\n') pos++;
+            if (pos < limit) pos++;
+        }
+
+        int nextIndex(int max) {
+            skipBlanks();
+            long v = 0;
+            int start = pos;
+            while (pos < limit) {
+                int d = buf.get(pos) - '0';
+                if (d < 0 || d > 9) break;
+                v = v * 10 + d;
+                if (v > max) break;
+                pos++;
+            }
+            if (pos == start || v < 1 || v > max) {
+                throw new NumberFormatException("Bad index near byte " + start + ": expected 1.." + max);
+            }
+            return (int) v - 1;
+        }
+
+        /**
+         * Parses a decimal number. Values with at most 15 significant digits
+         * and a decimal exponent within +-22 are computed exactly as
+         * mantissa * 10^e (both factors are exact doubles, so the result is
+         * correctly rounded); anything else goes through Double.parseDouble.
+         */
+        double nextDouble() {
+            skipBlanks();
+            int start = pos;
+            while (pos < limit) {
+                byte b = buf.get(pos);
+                if (b == ' ' || b == '\t' || b == '\r' || b == '\n') break;
+                pos++;
+            }
+            int end = pos;
+            if (start == end) {
+                throw new NumberFormatException("Missing value near byte " + start);
+            }
+
+            int i = start;
+            boolean negative = false;
+            byte b = buf.get(i);
+            if (b == '-' || b == '+') {
+                negative = b == '-';
+                i++;
+            }
+
+            long mantissa = 0;
+            int digits = 0;
+            int scale = 0;
+            boolean anyDigit = false;
+            boolean fraction = false;
+
+            for (; i < end; i++) {
+                b = buf.get(i);
+                if (b >= '0' && b <= '9') {
+                    anyDigit = true;
+                    if (mantissa != 0 || b != '0') digits++;
+                    mantissa = mantissa * 10 + (b - '0');
+                    if (fraction) scale--;
+                    if (digits > 15) return slowParse(start, end);
+                } else if (b == '.' && !fraction) {
+                    fraction = true;
+                } else {
+                    break;
+                }
+            }
+
+            if (i < end) {
+                b = buf.get(i);
+                if (b != 'e' && b != 'E') return slowParse(start, end);
+                i++;
+                boolean expNegative = false;
+                if (i < end && (buf.get(i) == '-' || buf.get(i) == '+')) {
+                    expNegative = buf.get(i) == '-';
+                    i++;
+                }
+                int exp = 0;
+                int expStart = i;
+                for (; i < end; i++) {
+                    int d = buf.get(i) - '0';
+                    if (d < 0 || d > 9 || exp > 1000) return slowParse(start, end);
+                    exp = exp * 10 + d;
+                }
+                if (i == expStart) return slowParse(start, end);
+                scale += expNegative ? -exp : exp;
+            }
+
+            if (!anyDigit || scale < -22 || scale > 22) return slowParse(start, end);
+
+            double v = scale < 0 ? mantissa / POW10[-scale] : mantissa * POW10[scale];
+            return negative ? -v : v;
+        }
+
+        private double slowParse(int start, int end) {
+            byte[] bytes = new byte[end - start];
+            for (int i = 0; i < bytes.length; i++) bytes[i] = buf.get(start + i);
+            return Double.parseDouble(new String(bytes, StandardCharsets.US_ASCII));
+        }
+
+        private void skipBlanks() {
+            while (pos < limit && (buf.get(pos) == ' ' || buf.get(pos) == '\t')) pos++;
+        }
+    }
 }
@@ -0,0 +1,196 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+/**
+ * Dense row-major matrix stored outside the Java heap.
+ *
+ * Storage is either direct memory (allocate) or a memory-mapped file
+ * (map), so matrices larger than -Xmx can be used and the garbage
+ * collector never scans or copies them. A single buffer is limited to
+ * 2 GB, so rows are grouped into segments of at most 2^27 doubles; a row
+ * never crosses a segment boundary.
+ *
+ * Kernels do not read elements one by one: multiply streams tiles into
+ * small on-heap DenseMatrix buffers, runs the packed kernel on them and
+ * writes the finished C tile back, so the heap only ever holds a few tiles
+ * per worker thread.
+ */
+public class OffHeapMatrix {
+
+    private static final long SEGMENT_DOUBLES = 1L << 27;
+
+    // Default tile edge for multiply (three 512 x 512 tiles = 6 MB per worker)
+    public static final int DEFAULT_TILE = 512;
+
+    public final int rows;
+    public final int cols;
+
+    private final DoubleBuffer[] segments;
+    private final int rowsPerSegment;
+
+    private OffHeapMatrix(int rows, int cols, DoubleBuffer[] segments, int rowsPerSegment) {
+        this.rows = rows;
+        this.cols = cols;
+        this.segments = segments;
+        this.rowsPerSegment = rowsPerSegment;
+    }
+
+    /**
+     * Allocates a zero-filled matrix in direct (off-heap) memory.
+     * The memory is released when the matrix becomes unreachable; the
+     * limit is set with -XX:MaxDirectMemorySize.
+     */
+    public static OffHeapMatrix allocate(int rows, int cols) {
+        int perSegment = rowsPerSegment(cols);
+        DoubleBuffer[] segments = new DoubleBuffer[segmentCount(rows, perSegment)];
+
+        for (int s = 0; s < segments.length; s++) {
+            int segRows = Math.min(perSegment, rows - s * perSegment);
+            segments[s] = ByteBuffer.allocateDirect(segRows * cols * 8)
+                    .order(ByteOrder.nativeOrder()).asDoubleBuffer();
+        }
+        return new OffHeapMatrix(rows, cols, segments, perSegment);
+    }
+
+    /**
+     * Maps a rows x cols matrix onto a file (created or extended as needed).
+     * Existing contents are kept, so a matrix written by one run can be
+     * mapped again by the next. Pages are written back by the OS.
+     */
+    public static OffHeapMatrix map(String filename, int rows, int cols) throws IOException {
+        int perSegment = rowsPerSegment(cols);
+        DoubleBuffer[] segments = new DoubleBuffer[segmentCount(rows, perSegment)];
+
+        try (FileChannel ch = FileChannel.open(Paths.get(filename), StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            for (int s = 0; s < segments.length; s++) {
+                int segRows = Math.min(perSegment, rows - s * perSegment);
+                long offset = (long) s * perSegment * cols * 8;
+                segments[s] = ch.map(FileChannel.MapMode.READ_WRITE, offset, (long) segRows * cols * 8)
+                        .order(ByteOrder.nativeOrder()).asDoubleBuffer();
+            }
+        }
+        return new OffHeapMatrix(rows, cols, segments, perSegment);
+    }
+
+    public double get(int i, int j) {
+        return segments[i / rowsPerSegment].get((i % rowsPerSegment) * cols + j);
+    }
+
+    public void set(int i, int j, double v) {
+        segments[i / rowsPerSegment].put((i % rowsPerSegment) * cols + j, v);
+    }
+
+    /**
+     * Fills the matrix with random doubles in [0, 1), one row at a time.
+     */
+    public void fillRandom(Random rand) {
+        double[] row = new double[cols];
+        for (int i = 0; i < rows; i++) {
+            for (int j = 0; j < cols; j++) row[j] = rand.nextDouble();
+            writeRow(i, 0, row, 0, cols);
+        }
+    }
+
+    /**
+     * Copies the block starting at (row0, col0) into dst (a row-major
+     * DenseMatrix or view of at most the remaining size).
+     */
+    public void readBlock(int row0, int col0, DenseMatrix dst) {
+        for (int i = 0; i < dst.rows; i++) {
+            int r = row0 + i;
+            segments[r / rowsPerSegment].get((r % rowsPerSegment) * cols + col0,
+                    dst.data, dst.offset + i * dst.rowStride, dst.cols);
+        }
+    }
+
+    /**
+     * Copies src (a row-major DenseMatrix or view) into the block starting
+     * at (row0, col0).
+     */
+    public void writeBlock(int row0, int col0, DenseMatrix src) {
+        for (int i = 0; i < src.rows; i++) {
+            writeRow(row0 + i, col0, src.data, src.offset + i * src.rowStride, src.cols);
+        }
+    }
+
+    /**
+     * Copies the whole matrix into an on-heap DenseMatrix (small sizes only).
+     */
+    public DenseMatrix toDense() {
+        DenseMatrix M = new DenseMatrix(rows, cols);
+        readBlock(0, 0, M);
+        return M;
+    }
+
+    /**
+     * Returns A * B in a new direct-memory matrix.
+     */
+    public static OffHeapMatrix multiply(OffHeapMatrix A, OffHeapMatrix B, int tile) {
+        OffHeapMatrix C = allocate(A.rows, B.cols);
+        multiplyInto(A, B, C, tile);
+        return C;
+    }
+
+    /**
+     * Computes C = A * B tile by tile. Tiles of C are independent and run
+     * in parallel; each worker loads the A and B tiles for every step of
+     * k into heap buffers, accumulates the C tile on the heap with
+     * PackedGemm, and writes it back once.
+     */
+    public static void multiplyInto(OffHeapMatrix A, OffHeapMatrix B, OffHeapMatrix C, int tile) {
+        if (A.cols != B.rows || C.rows != A.rows || C.cols != B.cols) {
+            throw new IllegalArgumentException("Cannot multiply " + A.rows + " x " + A.cols + " by "
+                    + B.rows + " x " + B.cols + " into " + C.rows + " x " + C.cols);
+        }
+        if (tile < 1) {
+            throw new IllegalArgumentException("Tile size must be positive: " + tile);
+        }
+
+        int m = A.rows, n = B.cols, k = A.cols;
+        int tileRows = (m + tile - 1) / tile;
+        int tileCols = (n + tile - 1) / tile;
+
+        IntStream.range(0, tileRows * tileCols).parallel().forEach(t -> {
+            int i0 = (t / tileCols) * tile, j0 = (t % tileCols) * tile;
+            int mi = Math.min(tile, m - i0), nj = Math.min(tile, n - j0);
+
+            DenseMatrix aTile = new DenseMatrix(tile, tile);
+            DenseMatrix bTile = new DenseMatrix(tile, tile);
+            DenseMatrix cTile = new DenseMatrix(mi, nj);
+            PackedGemm.Workspace ws = new PackedGemm.Workspace(tile, tile, tile);
+
+            for (int k0 = 0; k0 < k; k0 += tile) {
+                int kk = Math.min(tile, k - k0);
+                DenseMatrix a = aTile.view(0, 0, mi, kk);
+                DenseMatrix b = bTile.view(0, 0, kk, nj);
+                A.readBlock(i0, k0, a);
+                B.readBlock(k0, j0, b);
+                PackedGemm.multiplyInto(a, b, cTile, ws);
+            }
+            C.writeBlock(i0, j0, cTile);
+        });
+    }
+
+    private void writeRow(int i, int col0, double[] src, int off, int len) {
+        segments[i / rowsPerSegment].put((i % rowsPerSegment) * cols + col0, src, off, len);
+    }
+
+    private static int rowsPerSegment(int cols) {
+        if (cols < 1 || cols > SEGMENT_DOUBLES) {
+            throw new IllegalArgumentException("Unsupported number of columns: " + cols);
+        }
+        return (int) (SEGMENT_DOUBLES / cols);
+    }
+
+    private static int segmentCount(int rows, int rowsPerSegment) {
+        return (rows + rowsPerSegment - 1) / rowsPerSegment;
+    }
+}
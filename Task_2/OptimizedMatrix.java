@@ -3,15 +3,17 @@ public class OptimizedMatrix {
     /**
      * Performs the standard O(n^3) matrix multiplication C = A * B.
      * Naive implementation with three nested loops in order i-j-k.
+     * A is m x k, B is k x n and the result is m x n.
      */
     public static double[][] multiplyBasic(double[][] A, double[][] B) {
-        int n = A.length;
-        double[][] C = new double[n][n];
+        DenseMatrix.checkMultiply(A, B);
+        int m = A.length, kDim = B.length, n = DenseMatrix.cols(B);
+        double[][] C = new double[m][n];
 
-        for (int i = 0; i < n; i++) {
+        for (int i = 0; i < m; i++) {
             for (int j = 0; j < n; j++) {
                 double sum = 0.0;
-                for (int k = 0; k < n; k++) {
+                for (int k = 0; k < kDim; k++) {
                     sum += A[i][k] * B[k][j];
                 }
                 C[i][j] = sum;
@@ -26,14 +28,15 @@ public class OptimizedMatrix {
      * by using the transposed version of B and reordering loops (i - k - j).
      */
     public static double[][] multiplyCacheFriendly(double[][] A, double[][] B) {
-        int n = A.length;
-        double[][] C = new double[n][n];
+        DenseMatrix.checkMultiply(A, B);
+        int m = A.length, kDim = B.length, n = DenseMatrix.cols(B);
+        double[][] C = new double[m][n];
 
         // Precompute the transpose of B for sequential memory access
         double[][] B_T = transpose(B);
 
-        for (int i = 0; i < n; i++) {
-            for (int k = 0; k < n; k++) {
+        for (int i = 0; i < m; i++) {
+            for (int k = 0; k < kDim; k++) {
                 double a = A[i][k];
                 for (int j = 0; j < n; j++) {
                     C[i][j] += a * B_T[j][k];
@@ -49,18 +52,19 @@ public class OptimizedMatrix {
      * This improves cache locality for large matrices.
      */
     public static double[][] multiplyTiled(double[][] A, double[][] B, int blockSize) {
-        int n = A.length;
-        double[][] C = new double[n][n];
+        DenseMatrix.checkMultiply(A, B);
+        int m = A.length, kDim = B.length, n = DenseMatrix.cols(B);
+        double[][] C = new double[m][n];
 
         // Again, transpose B to optimize memory access
         double[][] B_T = transpose(B);
 
-        for (int ii = 0; ii < n; ii += blockSize) {
-            for (int kk = 0; kk < n; kk += blockSize) {
+        for (int ii = 0; ii < m; ii += blockSize) {
+            for (int kk = 0; kk < kDim; kk += blockSize) {
                 for (int jj = 0; jj < n; jj += blockSize) {
 
-                    int iMax = Math.min(ii + blockSize, n);
-                    int kMax = Math.min(kk + blockSize, n);
+                    int iMax = Math.min(ii + blockSize, m);
+                    int kMax = Math.min(kk + blockSize, kDim);
                     int jMax = Math.min(jj + blockSize, n);
 
                     for (int i = ii; i < iMax; i++) {
@@ -80,14 +84,325 @@ public class OptimizedMatrix {
     }
 
     /**
-     *returns the transpose of a square matrix.
+     * Performs packed, register-blocked multiplication (see PackedGemm).
+     * Block sizes are chosen from the host's cache sizes instead of a
+     * fixed tile size.
      */
-    public static double[][] transpose(double[][] M) {
-        int n = M.length;
-        double[][] T = new double[n][n];
+    public static double[][] multiplyPacked(double[][] A, double[][] B) {
+        return PackedGemm.multiply(DenseMatrix.of(A), DenseMatrix.of(B)).toArray();
+    }
+
+    /**
+     * Flat version of multiplyPacked.
+     */
+    public static DenseMatrix multiplyPacked(DenseMatrix A, DenseMatrix B) {
+        return PackedGemm.multiply(A, B);
+    }
+
+    /**
+     * Flat version of multiplyBasic (order i-j-k) on contiguous storage.
+     * A is m x k, B is k x n and the result is m x n.
+     */
+    public static DenseMatrix multiplyBasic(DenseMatrix A, DenseMatrix B) {
+        DenseMatrix.checkMultiply(A, B);
+        A = A.rowMajor();
 
-        for (int i = 0; i < n; i++) {
+        int m = A.rows, n = B.cols, kDim = A.cols;
+        DenseMatrix C = new DenseMatrix(m, n);
+        double[] a = A.data, b = B.data, c = C.data;
+
+        for (int i = 0; i < m; i++) {
+            int aRow = A.offset + i * A.rowStride;
             for (int j = 0; j < n; j++) {
+                int bIdx = B.offset + j * B.colStride;
+                double sum = 0.0;
+                for (int k = 0; k < kDim; k++) {
+                    sum += a[aRow + k] * b[bIdx];
+                    bIdx += B.rowStride;
+                }
+                c[i * n + j] = sum;
+            }
+        }
+
+        return C;
+    }
+
+    /**
+     * Flat version of multiplyCacheFriendly.
+     * With row-major storage the i-k-j order already reads B row by row,
+     * so no transpose is needed: the inner loop streams one row of B into
+     * one row of C.
+     */
+    public static DenseMatrix multiplyCacheFriendly(DenseMatrix A, DenseMatrix B) {
+        DenseMatrix.checkMultiply(A, B);
+        A = A.rowMajor();
+        B = B.rowMajor();
+
+        int m = A.rows, n = B.cols, kDim = A.cols;
+        DenseMatrix C = new DenseMatrix(m, n);
+        double[] a = A.data, b = B.data, c = C.data;
+
+        for (int i = 0; i < m; i++) {
+            int aRow = A.offset + i * A.rowStride;
+            int cRow = i * n;
+            for (int k = 0; k < kDim; k++) {
+                double aik = a[aRow + k];
+                int bRow = B.offset + k * B.rowStride;
+                for (int j = 0; j < n; j++) {
+                    c[cRow + j] += aik * b[bRow + j];
+                }
+            }
+        }
+
+        return C;
+    }
+
+    /**
+     * Tiled multiplication with this host's tuned tile size (TuningProfile).
+     */
+    public static double[][] multiplyTiled(double[][] A, double[][] B) {
+        return multiplyTiled(A, B, TuningProfile.current().tile);
+    }
+
+    public static DenseMatrix multiplyTiled(DenseMatrix A, DenseMatrix B) {
+        return multiplyTiled(A, B, TuningProfile.current().tile);
+    }
+
+    /**
+     * Flat version of multiplyTiled: same ii-kk-jj blocking, with the
+     * i-k-j inner loops reading contiguous rows of B.
+     */
+    public static DenseMatrix multiplyTiled(DenseMatrix A, DenseMatrix B, int blockSize) {
+        DenseMatrix.checkMultiply(A, B);
+        DenseMatrix C = new DenseMatrix(A.rows, B.cols);
+        multiplyTiledInto(A.rowMajor(), B.rowMajor(), C, blockSize);
+        return C;
+    }
+
+    /**
+     * Single-precision tiled multiplication: same blocking as the flat
+     * double kernel, with float operands and float sums. The inner loop
+     * streams half the bytes per element, and the JIT fits twice as many
+     * lanes into each vector register.
+     */
+    public static FloatMatrix multiplyTiled(FloatMatrix A, FloatMatrix B, int blockSize) {
+        FloatMatrix.checkMultiply(A, B);
+        int m = A.rows, n = B.cols, kDim = A.cols;
+        FloatMatrix C = new FloatMatrix(m, n);
+        float[] a = A.data, b = B.data, c = C.data;
+
+        for (int ii = 0; ii < m; ii += blockSize) {
+            for (int kk = 0; kk < kDim; kk += blockSize) {
+                for (int jj = 0; jj < n; jj += blockSize) {
+
+                    int iMax = Math.min(ii + blockSize, m);
+                    int kMax = Math.min(kk + blockSize, kDim);
+                    int jMax = Math.min(jj + blockSize, n);
+
+                    for (int i = ii; i < iMax; i++) {
+                        int aRow = i * kDim;
+                        int cRow = i * n;
+                        for (int k = kk; k < kMax; k++) {
+                            float aik = a[aRow + k];
+                            int bRow = k * n;
+                            for (int j = jj; j < jMax; j++) {
+                                c[cRow + j] += aik * b[bRow + j];
+                            }
+                        }
+                    }
+
+                }
+            }
+        }
+
+        return C;
+    }
+
+    public static FloatMatrix multiplyTiled(FloatMatrix A, FloatMatrix B) {
+        return multiplyTiled(A, B, TuningProfile.current().tile);
+    }
+
+    /**
+     * Mixed-precision tiled multiplication: float operands, double sums.
+     * Reads the same bytes of A and B as the float kernel, but the result
+     * is only off by the rounding of the inputs, not by rounding at every
+     * one of the k additions.
+     */
+    public static DenseMatrix multiplyTiledMixed(FloatMatrix A, FloatMatrix B, int blockSize) {
+        FloatMatrix.checkMultiply(A, B);
+        int m = A.rows, n = B.cols, kDim = A.cols;
+        DenseMatrix C = new DenseMatrix(m, n);
+        float[] a = A.data, b = B.data;
+        double[] c = C.data;
+
+        for (int ii = 0; ii < m; ii += blockSize) {
+            for (int kk = 0; kk < kDim; kk += blockSize) {
+                for (int jj = 0; jj < n; jj += blockSize) {
+
+                    int iMax = Math.min(ii + blockSize, m);
+                    int kMax = Math.min(kk + blockSize, kDim);
+                    int jMax = Math.min(jj + blockSize, n);
+
+                    for (int i = ii; i < iMax; i++) {
+                        int aRow = i * kDim;
+                        int cRow = i * n;
+                        for (int k = kk; k < kMax; k++) {
+                            double aik = a[aRow + k];
+                            int bRow = k * n;
+                            for (int j = jj; j < jMax; j++) {
+                                c[cRow + j] += aik * b[bRow + j];
+                            }
+                        }
+                    }
+
+                }
+            }
+        }
+
+        return C;
+    }
+
+    public static DenseMatrix multiplyTiledMixed(FloatMatrix A, FloatMatrix B) {
+        return multiplyTiledMixed(A, B, TuningProfile.current().tile);
+    }
+
+    /**
+     * Tiled multiplication for matrices stored off-heap (see OffHeapMatrix).
+     * Tiles are streamed through small heap buffers, so the operands can be
+     * much larger than the Java heap.
+     */
+    public static OffHeapMatrix multiplyTiled(OffHeapMatrix A, OffHeapMatrix B, int blockSize) {
+        return OffHeapMatrix.multiply(A, B, blockSize);
+    }
+
+    /**
+     * Accumulates C += A * B with the tiled kernel.
+     * A and B must be row-major; C may be a view into a larger matrix,
+     * which lets parallel and recursive drivers reuse this kernel per block.
+     */
+    static void multiplyTiledInto(DenseMatrix A, DenseMatrix B, DenseMatrix C, int blockSize) {
+        int m = A.rows, n = B.cols, kDim = A.cols;
+        double[] a = A.data, b = B.data, c = C.data;
+
+        for (int ii = 0; ii < m; ii += blockSize) {
+            for (int kk = 0; kk < kDim; kk += blockSize) {
+                for (int jj = 0; jj < n; jj += blockSize) {
+
+                    int iMax = Math.min(ii + blockSize, m);
+                    int kMax = Math.min(kk + blockSize, kDim);
+                    int jMax = Math.min(jj + blockSize, n);
+
+                    for (int i = ii; i < iMax; i++) {
+                        int aRow = A.offset + i * A.rowStride;
+                        int cRow = C.offset + i * C.rowStride;
+                        for (int k = kk; k < kMax; k++) {
+                            double aik = a[aRow + k];
+                            int bRow = B.offset + k * B.rowStride;
+                            for (int j = jj; j < jMax; j++) {
+                                c[cRow + j] += aik * b[bRow + j];
+                            }
+                        }
+                    }
+
+                }
+            }
+        }
+    }
+
+    /**
+     * Matrix-vector product y = A * x for an m x k matrix A (GEMV).
+     * Every element of A is used once, so the product is bound by memory
+     * bandwidth: each row is read exactly once, in order.
+     */
+    public static double[] multiplyVector(double[][] A, double[] x) {
+        int m = A.length, kDim = DenseMatrix.cols(A);
+        if (m > 0 && kDim != x.length) {
+            throw new IllegalArgumentException("Cannot multiply " + m + " x " + kDim
+                    + " by a vector of length " + x.length);
+        }
+        double[] y = new double[m];
+
+        for (int i = 0; i < m; i++) {
+            double[] row = A[i];
+            double sum = 0.0;
+            for (int k = 0; k < kDim; k++) {
+                sum += row[k] * x[k];
+            }
+            y[i] = sum;
+        }
+
+        return y;
+    }
+
+    /**
+     * Flat version of multiplyVector. A may be any view, e.g. a transpose.
+     */
+    public static double[] multiplyVector(DenseMatrix A, double[] x) {
+        DenseMatrix.checkMultiply(A, x);
+        double[] y = new double[A.rows];
+        multiplyVectorInto(A, x, y, 0, A.rows, 0, A.cols);
+        return y;
+    }
+
+    /**
+     * Accumulates y[i] += A[i][col0 .. col1) . x[col0 .. col1) for the
+     * rows [row0, row1), so parallel drivers can split A both ways.
+     *  - Row-major A: four rows at a time, which reuses each x[k] four
+     *    times and gives four independent sums instead of one long chain.
+     *  - Otherwise (e.g. a transpose view, where columns are contiguous):
+     *    y += x[k] * column k, so A is still read in storage order instead
+     *    of being copied.
+     */
+    static void multiplyVectorInto(DenseMatrix A, double[] x, double[] y, int row0, int row1, int col0, int col1) {
+        double[] a = A.data;
+
+        if (!A.isRowMajor()) {
+            for (int k = col0; k < col1; k++) {
+                double xk = x[k];
+                int idx = A.offset + row0 * A.rowStride + k * A.colStride;
+                for (int i = row0; i < row1; i++, idx += A.rowStride) {
+                    y[i] += a[idx] * xk;
+                }
+            }
+            return;
+        }
+
+        int i = row0;
+        for (; i + 3 < row1; i += 4) {
+            int r0 = A.offset + i * A.rowStride, r1 = r0 + A.rowStride;
+            int r2 = r1 + A.rowStride, r3 = r2 + A.rowStride;
+            double s0 = 0, s1 = 0, s2 = 0, s3 = 0;
+            for (int k = col0; k < col1; k++) {
+                double xk = x[k];
+                s0 += a[r0 + k] * xk;
+                s1 += a[r1 + k] * xk;
+                s2 += a[r2 + k] * xk;
+                s3 += a[r3 + k] * xk;
+            }
+            y[i] += s0;
+            y[i + 1] += s1;
+            y[i + 2] += s2;
+            y[i + 3] += s3;
+        }
+        for (; i < row1; i++) {
+            int r = A.offset + i * A.rowStride;
+            double sum = 0.0;
+            for (int k = col0; k < col1; k++) {
+                sum += a[r + k] * x[k];
+            }
+            y[i] += sum;
+        }
+    }
+
+    /**
+     * Returns the transpose of a rows x cols matrix (cols x rows).
+     */
+    public static double[][] transpose(double[][] M) {
+        int rows = M.length, cols = DenseMatrix.cols(M);
+        double[][] T = new double[cols][rows];
+
+        for (int i = 0; i < rows; i++) {
+            for (int j = 0; j < cols; j++) {
                 T[j][i] = M[i][j];
             }
         }
@@ -0,0 +1,247 @@
+/**
+ * GotoBLAS/BLIS style matrix multiplication C += A * B on DenseMatrix.
+ *
+ * The loops are blocked three times:
+ *  - NC columns of B at a time (a KC x NC panel of B stays in L3),
+ *  - KC rows of B / columns of A at a time (one micro-panel of B stays in L1),
+ *  - MC rows of A at a time (an MC x KC block of A stays in L2).
+ *
+ * Each block of A and B is copied ("packed") into a contiguous buffer laid
+ * out in the exact order the micro-kernel reads it, so the innermost loop
+ * only does unit-stride loads. The micro-kernel keeps an MR x NR block of C
+ * in local variables, which the JIT can allocate to registers.
+ */
+public class PackedGemm {
+
+    // Register block computed by the micro-kernel
+    public static final int MR = 4;
+    public static final int NR = 8;
+
+    // Cache blocks derived from the host's cache sizes
+    public static final int KC = roundDown(clamp(CacheInfo.L1 / 2 / (NR * 8), 64, 512), 8);
+    public static final int MC = roundDown(clamp(CacheInfo.L2 / 2 / (KC * 8L), MR, 1024), MR);
+    public static final int NC = roundDown(clamp(CacheInfo.L3 / 2 / (KC * 8L), NR, 4096), NR);
+
+    /**
+     * Returns A * B using this host's block sizes (TuningProfile, by default
+     * the cache-derived MC, KC and NC).
+     */
+    public static DenseMatrix multiply(DenseMatrix A, DenseMatrix B) {
+        TuningProfile tuned = TuningProfile.current();
+        return multiply(A, B, tuned.mc, tuned.kc, tuned.nc);
+    }
+
+    /**
+     * Returns A * B using the given cache block sizes.
+     */
+    public static DenseMatrix multiply(DenseMatrix A, DenseMatrix B, int mc, int kc, int nc) {
+        DenseMatrix.checkMultiply(A, B);
+        DenseMatrix C = new DenseMatrix(A.rows, B.cols);
+        multiplyInto(A, B, C, mc, kc, nc);
+        return C;
+    }
+
+    /**
+     * Accumulates C += A * B. A and B may be any views (packing handles the
+     * strides); C must be row-major but may be a block of a larger matrix.
+     */
+    static void multiplyInto(DenseMatrix A, DenseMatrix B, DenseMatrix C, int mc, int kc, int nc) {
+        multiplyInto(A, B, C, new Workspace(A.rows, B.cols, A.cols, mc, kc, nc));
+    }
+
+    /**
+     * Accumulates C += A * B reusing the pack buffers of ws, so callers that
+     * run many products of the same size (e.g. Strassen leaves) do not
+     * allocate per call. A, B and C must fit the sizes ws was created for.
+     */
+    static void multiplyInto(DenseMatrix A, DenseMatrix B, DenseMatrix C, Workspace ws) {
+        int mc = ws.mc, kc = ws.kc, nc = ws.nc;
+        int m = A.rows, n = B.cols, kDim = A.cols;
+
+        double[] packedA = ws.packedA;
+        double[] packedB = ws.packedB;
+        double[] edge = ws.edge;
+
+        for (int jc = 0; jc < n; jc += nc) {
+            int ncur = Math.min(nc, n - jc);
+
+            for (int pc = 0; pc < kDim; pc += kc) {
+                int kcur = Math.min(kc, kDim - pc);
+                packB(B, pc, jc, kcur, ncur, packedB);
+
+                for (int ic = 0; ic < m; ic += mc) {
+                    int mcur = Math.min(mc, m - ic);
+                    packA(A, ic, pc, mcur, kcur, packedA);
+
+                    for (int jr = 0; jr < ncur; jr += NR) {
+                        int nr = Math.min(NR, ncur - jr);
+
+                        for (int ir = 0; ir < mcur; ir += MR) {
+                            int mr = Math.min(MR, mcur - ir);
+                            int cOff = C.offset + (ic + ir) * C.rowStride + (jc + jr);
+
+                            microKernel(kcur, packedA, ir * kcur, packedB, jr * kcur,
+                                    C.data, cOff, C.rowStride, mr, nr, edge);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Block sizes plus the pack buffers for products up to m x k times k x n.
+     */
+    static class Workspace {
+        final int mc, kc, nc;
+        final double[] packedA, packedB, edge;
+
+        Workspace(int m, int n, int k, int mc, int kc, int nc) {
+            if (mc < MR || kc < 1 || nc < NR) {
+                throw new IllegalArgumentException("Block sizes too small: mc=" + mc + " kc=" + kc + " nc=" + nc);
+            }
+            this.mc = roundDown(mc, MR);
+            this.kc = kc;
+            this.nc = roundDown(nc, NR);
+
+            packedA = new double[Math.min(this.mc, roundUp(m, MR)) * Math.min(kc, k)];
+            packedB = new double[Math.min(this.nc, roundUp(n, NR)) * Math.min(kc, k)];
+            edge = new double[MR * NR];
+        }
+
+        Workspace(int m, int n, int k) {
+            this(m, n, k, TuningProfile.current());
+        }
+
+        private Workspace(int m, int n, int k, TuningProfile tuned) {
+            this(m, n, k, tuned.mc, tuned.kc, tuned.nc);
+        }
+    }
+
+    /**
+     * Packs the mcur x kcur block of A at (row0, col0) into row panels of
+     * MR rows. Inside a panel, the MR values of each column k are adjacent.
+     * Rows past the end of A are padded with zeros.
+     */
+    private static void packA(DenseMatrix A, int row0, int col0, int mcur, int kcur, double[] dst) {
+        double[] a = A.data;
+        int d = 0;
+
+        for (int ir = 0; ir < mcur; ir += MR) {
+            int mr = Math.min(MR, mcur - ir);
+            int base = A.index(row0 + ir, col0);
+
+            for (int k = 0; k < kcur; k++) {
+                int src = base + k * A.colStride;
+                for (int r = 0; r < mr; r++) {
+                    dst[d + r] = a[src + r * A.rowStride];
+                }
+                for (int r = mr; r < MR; r++) {
+                    dst[d + r] = 0.0;
+                }
+                d += MR;
+            }
+        }
+    }
+
+    /**
+     * Packs the kcur x ncur block of B at (row0, col0) into column panels of
+     * NR columns. Inside a panel, the NR values of each row k are adjacent.
+     * Columns past the end of B are padded with zeros.
+     */
+    private static void packB(DenseMatrix B, int row0, int col0, int kcur, int ncur, double[] dst) {
+        double[] b = B.data;
+        int d = 0;
+
+        for (int jr = 0; jr < ncur; jr += NR) {
+            int nr = Math.min(NR, ncur - jr);
+            int base = B.index(row0, col0 + jr);
+
+            for (int k = 0; k < kcur; k++) {
+                int src = base + k * B.rowStride;
+                if (B.colStride == 1 && nr == NR) {
+                    System.arraycopy(b, src, dst, d, NR);
+                } else {
+                    for (int c = 0; c < nr; c++) {
+                        dst[d + c] = b[src + c * B.colStride];
+                    }
+                    for (int c = nr; c < NR; c++) {
+                        dst[d + c] = 0.0;
+                    }
+                }
+                d += NR;
+            }
+        }
+    }
+
+    /**
+     * Computes the 4 x 8 block C[0..mr, 0..nr] += Ap * Bp over kc steps.
+     * All 32 partial sums live in locals; Ap and Bp are read sequentially.
+     * Edge blocks (mr < MR or nr < NR) go through the small edge buffer.
+     */
+    private static void microKernel(int kc, double[] ap, int aOff, double[] bp, int bOff,
+                                    double[] c, int cOff, int ldc, int mr, int nr, double[] edge) {
+        double c00 = 0, c01 = 0, c02 = 0, c03 = 0, c04 = 0, c05 = 0, c06 = 0, c07 = 0;
+        double c10 = 0, c11 = 0, c12 = 0, c13 = 0, c14 = 0, c15 = 0, c16 = 0, c17 = 0;
+        double c20 = 0, c21 = 0, c22 = 0, c23 = 0, c24 = 0, c25 = 0, c26 = 0, c27 = 0;
+        double c30 = 0, c31 = 0, c32 = 0, c33 = 0, c34 = 0, c35 = 0, c36 = 0, c37 = 0;
+
+        for (int p = 0; p < kc; p++) {
+            double a0 = ap[aOff], a1 = ap[aOff + 1], a2 = ap[aOff + 2], a3 = ap[aOff + 3];
+            double b0 = bp[bOff], b1 = bp[bOff + 1], b2 = bp[bOff + 2], b3 = bp[bOff + 3];
+            double b4 = bp[bOff + 4], b5 = bp[bOff + 5], b6 = bp[bOff + 6], b7 = bp[bOff + 7];
+
+            c00 += a0 * b0; c01 += a0 * b1; c02 += a0 * b2; c03 += a0 * b3;
+            c04 += a0 * b4; c05 += a0 * b5; c06 += a0 * b6; c07 += a0 * b7;
+            c10 += a1 * b0; c11 += a1 * b1; c12 += a1 * b2; c13 += a1 * b3;
+            c14 += a1 * b4; c15 += a1 * b5; c16 += a1 * b6; c17 += a1 * b7;
+            c20 += a2 * b0; c21 += a2 * b1; c22 += a2 * b2; c23 += a2 * b3;
+            c24 += a2 * b4; c25 += a2 * b5; c26 += a2 * b6; c27 += a2 * b7;
+            c30 += a3 * b0; c31 += a3 * b1; c32 += a3 * b2; c33 += a3 * b3;
+            c34 += a3 * b4; c35 += a3 * b5; c36 += a3 * b6; c37 += a3 * b7;
+
+            aOff += MR;
+            bOff += NR;
+        }
+
+        if (mr == MR && nr == NR) {
+            int r0 = cOff, r1 = r0 + ldc, r2 = r1 + ldc, r3 = r2 + ldc;
+            c[r0] += c00; c[r0 + 1] += c01; c[r0 + 2] += c02; c[r0 + 3] += c03;
+            c[r0 + 4] += c04; c[r0 + 5] += c05; c[r0 + 6] += c06; c[r0 + 7] += c07;
+            c[r1] += c10; c[r1 + 1] += c11; c[r1 + 2] += c12; c[r1 + 3] += c13;
+            c[r1 + 4] += c14; c[r1 + 5] += c15; c[r1 + 6] += c16; c[r1 + 7] += c17;
+            c[r2] += c20; c[r2 + 1] += c21; c[r2 + 2] += c22; c[r2 + 3] += c23;
+            c[r2 + 4] += c24; c[r2 + 5] += c25; c[r2 + 6] += c26; c[r2 + 7] += c27;
+            c[r3] += c30; c[r3 + 1] += c31; c[r3 + 2] += c32; c[r3 + 3] += c33;
+            c[r3 + 4] += c34; c[r3 + 5] += c35; c[r3 + 6] += c36; c[r3 + 7] += c37;
+            return;
+        }
+
+        edge[0] = c00; edge[1] = c01; edge[2] = c02; edge[3] = c03;
+        edge[4] = c04; edge[5] = c05; edge[6] = c06; edge[7] = c07;
+        edge[8] = c10; edge[9] = c11; edge[10] = c12; edge[11] = c13;
+        edge[12] = c14; edge[13] = c15; edge[14] = c16; edge[15] = c17;
+        edge[16] = c20; edge[17] = c21; edge[18] = c22; edge[19] = c23;
+        edge[20] = c24; edge[21] = c25; edge[22] = c26; edge[23] = c27;
+        edge[24] = c30; edge[25] = c31; edge[26] = c32; edge[27] = c33;
+        edge[28] = c34; edge[29] = c35; edge[30] = c36; edge[31] = c37;
+
+        for (int i = 0; i < mr; i++) {
+            for (int j = 0; j < nr; j++) {
+                c[cOff + i * ldc + j] += edge[i * NR + j];
+            }
+        }
+    }
+
+    private static int clamp(long v, int lo, int hi) {
+        return (int) Math.max(lo, Math.min(hi, v));
+    }
+
+    private static int roundDown(int v, int multiple) {
+        return Math.max(multiple, v / multiple * multiple);
+    }
+
+    private static int roundUp(int v, int multiple) {
+        return (v + multiple - 1) / multiple * multiple;
+    }
+}
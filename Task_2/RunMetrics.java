@@ -0,0 +1,207 @@
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Locale;
+
+/**
+ * Allocation and GC metrics of one benchmark run, used by the harnesses of
+ * all four tasks instead of heap deltas from Runtime.totalMemory() -
+ * freeMemory() (which depend on when the GC last ran and can be negative).
+ *
+ * Between start() and stop() it records:
+ *  - bytes allocated by the measuring thread, and by all threads of the JVM
+ *    (com.sun.management.ThreadMXBean); on JDK 21+ this includes threads
+ *    that terminated during the run, before that only live threads count,
+ *  - the number of collections and the time spent in them
+ *    (GarbageCollectorMXBean, summed over all collectors),
+ *  - the peak resident set size of the process (VmHWM in /proc/self/status,
+ *    reset at start() through /proc/self/clear_refs; -1 when not on Linux),
+ *  - the peak used heap (sum of the peaks of the heap memory pools, which
+ *    is an upper bound since pools peak at different times).
+ *
+ * Runs can be accumulated with add(), and toCsv(runs) writes the additive
+ * metrics as per-run means.
+ */
+public class RunMetrics {
+
+    // Columns written by toCsv()
+    public static final String CSV_HEADER = "alloc_mb,thread_alloc_mb,gc_count,gc_ms,peak_rss_mb,peak_heap_mb";
+
+    private static final Path PROC_STATUS = Paths.get("/proc/self/status");
+    private static final Path PROC_CLEAR_REFS = Paths.get("/proc/self/clear_refs");
+
+    private static final com.sun.management.ThreadMXBean THREADS = threadBean();
+    private static final Method TOTAL_ALLOCATED = totalAllocatedMethod();
+
+    public long allocatedBytes;
+    public long threadAllocatedBytes;
+    public long gcCount;
+    public long gcMillis;
+    public long peakRssBytes = -1;
+    public long peakHeapBytes;
+
+    // Counters at start()
+    private long startAllocated, startThreadAllocated, startGcCount, startGcMillis;
+
+    /**
+     * Resets the peaks and takes the starting counters.
+     */
+    public static RunMetrics start() {
+        RunMetrics m = new RunMetrics();
+        resetPeaks();
+        m.startGcCount = gcCountNow();
+        m.startGcMillis = gcMillisNow();
+        m.startAllocated = allocatedNow();
+        m.startThreadAllocated = threadAllocatedNow();
+        return m;
+    }
+
+    /**
+     * Takes the final counters; must be called on the thread that called start().
+     */
+    public RunMetrics stop() {
+        threadAllocatedBytes = threadAllocatedNow() - startThreadAllocated;
+        allocatedBytes = Math.max(threadAllocatedBytes, allocatedNow() - startAllocated);
+        gcCount = gcCountNow() - startGcCount;
+        gcMillis = gcMillisNow() - startGcMillis;
+        peakRssBytes = peakRss();
+        peakHeapBytes = peakHeap();
+        return this;
+    }
+
+    /**
+     * Adds another run: additive metrics are summed, peaks take the maximum.
+     */
+    public void add(RunMetrics run) {
+        allocatedBytes += run.allocatedBytes;
+        threadAllocatedBytes += run.threadAllocatedBytes;
+        gcCount += run.gcCount;
+        gcMillis += run.gcMillis;
+        peakRssBytes = Math.max(peakRssBytes, run.peakRssBytes);
+        peakHeapBytes = Math.max(peakHeapBytes, run.peakHeapBytes);
+    }
+
+    public double allocatedMB() {
+        return allocatedBytes / (1024.0 * 1024.0);
+    }
+
+    public String toCsv() {
+        return toCsv(1);
+    }
+
+    /**
+     * CSV_HEADER columns, with allocations and GC divided by runs.
+     */
+    public String toCsv(int runs) {
+        double mb = 1024.0 * 1024.0;
+        return String.format(Locale.US, "%.3f,%.3f,%.2f,%.2f,%.1f,%.1f",
+                allocatedBytes / mb / runs, threadAllocatedBytes / mb / runs,
+                (double) gcCount / runs, (double) gcMillis / runs,
+                peakRssBytes < 0 ? -1.0 : peakRssBytes / mb, peakHeapBytes / mb);
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.US, "alloc %.2f MB, %d GC (%d ms), peak RSS %s, peak heap %.1f MB",
+                allocatedMB(), gcCount, gcMillis,
+                peakRssBytes < 0 ? "n/a" : String.format(Locale.US, "%.1f MB", peakRssBytes / (1024.0 * 1024.0)),
+                peakHeapBytes / (1024.0 * 1024.0));
+    }
+
+    private static com.sun.management.ThreadMXBean threadBean() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (!(bean instanceof com.sun.management.ThreadMXBean)) return null;
+
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) bean;
+        if (!threads.isThreadAllocatedMemorySupported()) return null;
+        threads.setThreadAllocatedMemoryEnabled(true);
+        return threads;
+    }
+
+    // getTotalThreadAllocatedBytes() only exists from JDK 21 on
+    private static Method totalAllocatedMethod() {
+        if (THREADS == null) return null;
+        try {
+            return com.sun.management.ThreadMXBean.class.getMethod("getTotalThreadAllocatedBytes");
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+
+    private static long threadAllocatedNow() {
+        return THREADS == null ? 0 : THREADS.getCurrentThreadAllocatedBytes();
+    }
+
+    private static long allocatedNow() {
+        if (THREADS == null) return 0;
+        if (TOTAL_ALLOCATED != null) {
+            try {
+                return (Long) TOTAL_ALLOCATED.invoke(THREADS);
+            } catch (ReflectiveOperationException e) {
+                // Fall through to the live threads
+            }
+        }
+        long total = 0;
+        for (long bytes : THREADS.getThreadAllocatedBytes(THREADS.getAllThreadIds())) {
+            if (bytes > 0) total += bytes;
+        }
+        return total;
+    }
+
+    private static long gcCountNow() {
+        long count = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            count += Math.max(0, gc.getCollectionCount());
+        }
+        return count;
+    }
+
+    private static long gcMillisNow() {
+        long millis = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            millis += Math.max(0, gc.getCollectionTime());
+        }
+        return millis;
+    }
+
+    private static void resetPeaks() {
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) pool.resetPeakUsage();
+        }
+        try {
+            // "5" resets the peak RSS (VmHWM) to the current RSS
+            Files.write(PROC_CLEAR_REFS, "5".getBytes(StandardCharsets.US_ASCII));
+        } catch (IOException | UnsupportedOperationException | SecurityException e) {
+            // Not Linux: peakRss() reports -1 anyway
+        }
+    }
+
+    private static long peakHeap() {
+        long peak = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) peak += pool.getPeakUsage().getUsed();
+        }
+        return peak;
+    }
+
+    private static long peakRss() {
+        try {
+            for (String line : Files.readAllLines(PROC_STATUS, StandardCharsets.US_ASCII)) {
+                if (line.startsWith("VmHWM:")) {
+                    String kb = line.substring("VmHWM:".length()).trim().split("\\s+")[0];
+                    return Long.parseLong(kb) * 1024;
+                }
+            }
+        } catch (IOException | NumberFormatException e) {
+            // Fall through
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,172 @@
+import java.util.Arrays;
+
+/**
+ * Strassen-Winograd matrix multiplication (7 products and 15 additions
+ * per level instead of 8 products).
+ *
+ * The recursion splits A, B and C into quadrants until the smallest
+ * dimension is at most the crossover size, then the packed classical
+ * kernel (PackedGemm) computes the leaf products.
+ *
+ * Sizes that are not divisible by 2^levels are zero-padded once at the
+ * top. All temporaries are allocated once per call: each recursion level
+ * owns two scratch buffers (X for A/C-shaped sums, Y for B-shaped sums)
+ * and the leaves share one set of pack buffers. The operation schedule is
+ * the one from Boyer, Dumas, Pernet and Zhou, which uses the quadrants of
+ * C as additional scratch space.
+ */
+public class StrassenMatrix {
+
+    // Default size below which the classical kernel is faster
+    public static final int DEFAULT_CROSSOVER = 512;
+
+    public static double[][] multiply(double[][] A, double[][] B) {
+        return multiply(DenseMatrix.of(A), DenseMatrix.of(B)).toArray();
+    }
+
+    // Crossover from this host's TuningProfile (DEFAULT_CROSSOVER until tuned)
+    public static DenseMatrix multiply(DenseMatrix A, DenseMatrix B) {
+        return multiply(A, B, TuningProfile.current().strassenCrossover);
+    }
+
+    /**
+     * Returns A * B, recursing while the smallest of m, k and n is larger
+     * than crossover.
+     */
+    public static DenseMatrix multiply(DenseMatrix A, DenseMatrix B, int crossover) {
+        DenseMatrix.checkMultiply(A, B);
+        if (crossover < 1) {
+            throw new IllegalArgumentException("Crossover must be positive: " + crossover);
+        }
+
+        int m = A.rows, k = A.cols, n = B.cols;
+
+        int levels = 0;
+        while (Math.min(m, Math.min(k, n)) > crossover << levels) {
+            levels++;
+        }
+        if (levels == 0) {
+            return PackedGemm.multiply(A, B);
+        }
+
+        // Pad every dimension up to a multiple of 2^levels
+        int pm = padTo(m, levels), pk = padTo(k, levels), pn = padTo(n, levels);
+        DenseMatrix PA = pad(A, pm, pk);
+        DenseMatrix PB = pad(B, pk, pn);
+        DenseMatrix PC = new DenseMatrix(pm, pn);
+
+        // Scratch buffers for every level, sized for that level's quadrants
+        double[][] X = new double[levels][];
+        double[][] Y = new double[levels][];
+        for (int l = 0; l < levels; l++) {
+            int hm = pm >> (l + 1), hk = pk >> (l + 1), hn = pn >> (l + 1);
+            X[l] = new double[hm * Math.max(hk, hn)];
+            Y[l] = new double[hk * hn];
+        }
+        PackedGemm.Workspace leaf = new PackedGemm.Workspace(pm >> levels, pn >> levels, pk >> levels);
+
+        recurse(PA, PB, PC, 0, levels, X, Y, leaf);
+
+        return (pm == m && pn == n) ? PC : PC.view(0, 0, m, n).copy();
+    }
+
+    /**
+     * Computes C = A * B (overwriting C) at the given recursion level.
+     */
+    private static void recurse(DenseMatrix A, DenseMatrix B, DenseMatrix C, int level, int levels,
+                                double[][] X, double[][] Y, PackedGemm.Workspace leaf) {
+        if (level == levels) {
+            fill(C, 0.0);
+            PackedGemm.multiplyInto(A, B, C, leaf);
+            return;
+        }
+
+        int hm = A.rows / 2, hk = A.cols / 2, hn = B.cols / 2;
+
+        DenseMatrix A11 = A.view(0, 0, hm, hk), A12 = A.view(0, hk, hm, hk);
+        DenseMatrix A21 = A.view(hm, 0, hm, hk), A22 = A.view(hm, hk, hm, hk);
+        DenseMatrix B11 = B.view(0, 0, hk, hn), B12 = B.view(0, hn, hk, hn);
+        DenseMatrix B21 = B.view(hk, 0, hk, hn), B22 = B.view(hk, hn, hk, hn);
+        DenseMatrix C11 = C.view(0, 0, hm, hn), C12 = C.view(0, hn, hm, hn);
+        DenseMatrix C21 = C.view(hm, 0, hm, hn), C22 = C.view(hm, hn, hm, hn);
+
+        DenseMatrix XA = new DenseMatrix(hm, hk, X[level]);
+        DenseMatrix XC = new DenseMatrix(hm, hn, X[level]);
+        DenseMatrix T = new DenseMatrix(hk, hn, Y[level]);
+
+        int next = level + 1;
+
+        sub(A11, A21, XA);                               // S3 = A11 - A21
+        sub(B22, B12, T);                                // T3 = B22 - B12
+        recurse(XA, T, C21, next, levels, X, Y, leaf);   // P7 = S3 * T3
+        add(A21, A22, XA);                               // S1 = A21 + A22
+        sub(B12, B11, T);                                // T1 = B12 - B11
+        recurse(XA, T, C22, next, levels, X, Y, leaf);   // P5 = S1 * T1
+        sub(XA, A11, XA);                                // S2 = S1 - A11
+        sub(B22, T, T);                                  // T2 = B22 - T1
+        recurse(XA, T, C12, next, levels, X, Y, leaf);   // P6 = S2 * T2
+        sub(A12, XA, XA);                                // S4 = A12 - S2
+        recurse(XA, B22, C11, next, levels, X, Y, leaf); // P3 = S4 * B22
+        recurse(A11, B11, XC, next, levels, X, Y, leaf); // P1 = A11 * B11
+        add(XC, C12, C12);                               // U2 = P1 + P6
+        add(C12, C21, C21);                              // U3 = U2 + P7
+        add(C12, C22, C12);                              // U4 = U2 + P5
+        add(C21, C22, C22);                              // U7 = U3 + P5  -> C22
+        add(C12, C11, C12);                              // U5 = U4 + P3  -> C12
+        sub(T, B21, T);                                  // T4 = T2 - B21
+        recurse(A22, T, C11, next, levels, X, Y, leaf);  // P4 = A22 * T4
+        sub(C21, C11, C21);                              // U6 = U3 - P4  -> C21
+        recurse(A12, B21, C11, next, levels, X, Y, leaf); // P2 = A12 * B21
+        add(XC, C11, C11);                               // U1 = P1 + P2  -> C11
+    }
+
+    // Z = X + Y on row-major views of the same shape (Z may alias X or Y)
+    private static void add(DenseMatrix X, DenseMatrix Y, DenseMatrix Z) {
+        for (int i = 0; i < Z.rows; i++) {
+            int x = X.offset + i * X.rowStride;
+            int y = Y.offset + i * Y.rowStride;
+            int z = Z.offset + i * Z.rowStride;
+            for (int j = 0; j < Z.cols; j++) {
+                Z.data[z + j] = X.data[x + j] + Y.data[y + j];
+            }
+        }
+    }
+
+    // Z = X - Y on row-major views of the same shape (Z may alias X or Y)
+    private static void sub(DenseMatrix X, DenseMatrix Y, DenseMatrix Z) {
+        for (int i = 0; i < Z.rows; i++) {
+            int x = X.offset + i * X.rowStride;
+            int y = Y.offset + i * Y.rowStride;
+            int z = Z.offset + i * Z.rowStride;
+            for (int j = 0; j < Z.cols; j++) {
+                Z.data[z + j] = X.data[x + j] - Y.data[y + j];
+            }
+        }
+    }
+
+    private static void fill(DenseMatrix M, double v) {
+        for (int i = 0; i < M.rows; i++) {
+            int row = M.offset + i * M.rowStride;
+            Arrays.fill(M.data, row, row + M.cols, v);
+        }
+    }
+
+    private static int padTo(int size, int levels) {
+        int block = 1 << levels;
+        return (size + block - 1) / block * block;
+    }
+
+    // Returns M as a row-major rows x cols matrix, zero-padded if larger
+    private static DenseMatrix pad(DenseMatrix M, int rows, int cols) {
+        if (rows == M.rows && cols == M.cols) {
+            return M.rowMajor();
+        }
+        DenseMatrix P = new DenseMatrix(rows, cols);
+        for (int i = 0; i < M.rows; i++) {
+            for (int j = 0; j < M.cols; j++) {
+                P.data[i * cols + j] = M.get(i, j);
+            }
+        }
+        return P;
+    }
+}
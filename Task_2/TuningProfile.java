@@ -0,0 +1,176 @@
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Locale;
+import java.util.Properties;
+
+/**
+ * Kernel parameters tuned for the current host.
+ *
+ * The AutoTuner in Task 3 measures the tile size of the tiled kernel, the
+ * cache blocks of PackedGemm, the thread count of the parallel kernels,
+ * the Strassen crossover and the smallest product worth running in
+ * parallel, and saves the winners as a properties file. current() loads
+ * that file once per JVM, so the default entry points of the kernels
+ * (PackedGemm.multiply(A, B), StrassenMatrix.multiply(A, B),
+ * OptimizedMatrix.multiplyTiled(A, B), ForkJoinMatrix.multiply(A, B)) and
+ * MatrixEngine use the tuned values without benchmarking again.
+ *
+ * The file is ~/.matrix/tuning-<hostname>.properties unless
+ * -Dmatrix.tuning.file says otherwise. It records the core count, cache
+ * sizes and architecture it was tuned on; a file from a different host
+ * (or a missing or broken one) is ignored and the defaults below, derived
+ * from CacheInfo and the core count, are used instead.
+ */
+public class TuningProfile {
+
+    public static final String FILE_PROPERTY = "matrix.tuning.file";
+
+    public int tile = 64;
+    public int mc = PackedGemm.MC;
+    public int kc = PackedGemm.KC;
+    public int nc = PackedGemm.NC;
+    public int threads = Runtime.getRuntime().availableProcessors();
+    public int strassenCrossover = StrassenMatrix.DEFAULT_CROSSOVER;
+    public double parallelMinFlops = 1L << 26;
+
+    // Where the values came from: "defaults", the file, or why the file was ignored
+    public String source = "defaults";
+
+    private static TuningProfile current;
+
+    /**
+     * The profile of this host: loaded from the default file on first use.
+     */
+    public static synchronized TuningProfile current() {
+        if (current == null) {
+            current = load(defaultFile());
+        }
+        return current;
+    }
+
+    /**
+     * Makes profile the one returned by current() from now on (e.g. right
+     * after tuning, without reloading the file).
+     */
+    public static synchronized void use(TuningProfile profile) {
+        current = profile;
+    }
+
+    /**
+     * The file this host's profile is read from and saved to.
+     */
+    public static Path defaultFile() {
+        String file = System.getProperty(FILE_PROPERTY);
+        if (file != null && !file.isBlank()) {
+            return Paths.get(file);
+        }
+        return Paths.get(System.getProperty("user.home"), ".matrix", "tuning-" + hostName() + ".properties");
+    }
+
+    /**
+     * Reads a profile, falling back to the defaults when the file is
+     * missing, cannot be parsed or was tuned on a different host.
+     */
+    public static TuningProfile load(Path file) {
+        TuningProfile profile = new TuningProfile();
+        if (!Files.isRegularFile(file)) {
+            return profile;
+        }
+
+        Properties props = new Properties();
+        try (InputStream in = Files.newInputStream(file)) {
+            props.load(in);
+        } catch (IOException e) {
+            profile.source = "defaults (" + file + " unreadable: " + e.getMessage() + ")";
+            return profile;
+        }
+
+        String tunedOn = props.getProperty("host");
+        if (!host().equals(tunedOn)) {
+            profile.source = "defaults (" + file + " was tuned on " + tunedOn + ", this host is " + host() + ")";
+            return profile;
+        }
+
+        try {
+            TuningProfile tuned = new TuningProfile();
+            tuned.tile = positive(props, "tile", tuned.tile);
+            tuned.mc = positive(props, "mc", tuned.mc);
+            tuned.kc = positive(props, "kc", tuned.kc);
+            tuned.nc = positive(props, "nc", tuned.nc);
+            tuned.threads = positive(props, "threads", tuned.threads);
+            tuned.strassenCrossover = positive(props, "strassen.crossover", tuned.strassenCrossover);
+            tuned.parallelMinFlops = Double.parseDouble(
+                    props.getProperty("parallel.min.flops", String.valueOf(tuned.parallelMinFlops)));
+            if (tuned.mc < PackedGemm.MR || tuned.nc < PackedGemm.NR) {
+                throw new NumberFormatException("blocks smaller than the micro-kernel");
+            }
+            tuned.source = file.toString();
+            return tuned;
+        } catch (NumberFormatException e) {
+            profile.source = "defaults (" + file + " is invalid: " + e.getMessage() + ")";
+            return profile;
+        }
+    }
+
+    /**
+     * Writes this profile, with the host it belongs to, creating the directory if needed.
+     */
+    public void save(Path file) throws IOException {
+        Properties props = new Properties();
+        props.setProperty("host", host());
+        props.setProperty("tile", String.valueOf(tile));
+        props.setProperty("mc", String.valueOf(mc));
+        props.setProperty("kc", String.valueOf(kc));
+        props.setProperty("nc", String.valueOf(nc));
+        props.setProperty("threads", String.valueOf(threads));
+        props.setProperty("strassen.crossover", String.valueOf(strassenCrossover));
+        props.setProperty("parallel.min.flops", String.valueOf(parallelMinFlops));
+
+        Path dir = file.toAbsolutePath().getParent();
+        if (dir != null) Files.createDirectories(dir);
+        try (OutputStream out = Files.newOutputStream(file)) {
+            props.store(out, "Matrix kernel parameters tuned by AutoTuner (java " + System.getProperty("java.version") + ")");
+        }
+        source = file.toString();
+    }
+
+    /**
+     * What a profile must match to be used here: cores, cache sizes and architecture.
+     */
+    public static String host() {
+        return Runtime.getRuntime().availableProcessors() + " cores, L1 " + CacheInfo.L1 / 1024 + "K, L2 "
+                + CacheInfo.L2 / 1024 + "K, L3 " + CacheInfo.L3 / 1024 + "K, " + System.getProperty("os.arch");
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.US, "tile %d, packed blocks mc=%d kc=%d nc=%d, %d threads, "
+                        + "Strassen crossover %d, parallel from %.3g FLOP [%s]",
+                tile, mc, kc, nc, threads, strassenCrossover, parallelMinFlops, source);
+    }
+
+    private static int positive(Properties props, String key, int fallback) {
+        String value = props.getProperty(key);
+        if (value == null) return fallback;
+
+        int parsed = Integer.parseInt(value.trim());
+        if (parsed < 1) {
+            throw new NumberFormatException(key + " must be positive: " + parsed);
+        }
+        return parsed;
+    }
+
+    private static String hostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            return "localhost";
+        }
+    }
+}
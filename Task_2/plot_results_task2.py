@@ -11,13 +11,17 @@ plt.rcParams["font.size"] = 12
 # ---------------------------------------------------------------------
 # Load CSV
 # ---------------------------------------------------------------------
-df = pd.read_csv("results/benchmark_task2_results.csv", header=None)
-df.columns = ["lang", "algorithm", "n", "runs", "mean", "best", "worst"]
+# Newer rows also carry the RunMetrics columns; older rows leave them empty
+df = pd.read_csv("results/benchmark_task2_results.csv", header=None,
+                 names=["lang", "algorithm", "n", "runs", "mean", "best", "worst",
+                        "alloc_mb", "thread_alloc_mb", "gc_count", "gc_ms",
+                        "peak_rss_mb", "peak_heap_mb"])
 
 # ---------------------------------------------------------------------
 # FIX: Convert n to int ONLY for dense methods
 # ---------------------------------------------------------------------
-dense_mask = df["algorithm"].isin(["basic", "cache", "tiled16", "tiled32", "tiled64"])
+dense_methods = ["basic", "cache", "tiled16", "tiled32", "tiled64", "tiled_tuned", "packed", "strassen"]
+dense_mask = df["algorithm"].isin(dense_methods)
 df.loc[dense_mask, "n"] = df.loc[dense_mask, "n"].astype(int)
 
 # Extract dense methods
@@ -27,7 +31,7 @@ dense = df[dense_mask].sort_values("n")
 # 1. TIME VS N
 # ---------------------------------------------------------------------
 plt.figure()
-for method in ["basic", "cache", "tiled16", "tiled32", "tiled64"]:
+for method in dense_methods:
     sub = dense[dense["algorithm"] == method]
     if not sub.empty:
         plt.plot(sub["n"], sub["mean"], marker="o", linewidth=2, label=method)
@@ -47,7 +51,7 @@ basic_times = dense[dense["algorithm"] == "basic"].groupby("n")["mean"].mean()
 sorted_ns = sorted(basic_times.index)
 
 plt.figure()
-for method in ["cache", "tiled16", "tiled32", "tiled64"]:
+for method in dense_methods[1:]:
     sub = dense[dense["algorithm"] == method].groupby("n")["mean"].mean()
     common = [n for n in sorted_ns if n in sub.index]
     if len(common) > 0:
@@ -9,6 +9,11 @@ baseline = df[df["method"] == "baseline"]
 parallel_threads = df[df["method"] == "parallel_threads"]
 parallel_streams = df[df["method"] == "parallel_streams"]
 vectorized = df[df["method"] == "vectorized"]
+vector_api = df[df["method"] == "vector_api"]
+vector_api_float = df[df["method"] == "vector_api_float"]
+vector_api_mixed = df[df["method"] == "vector_api_mixed"]
+forkjoin = df[df["method"] == "forkjoin"]
+engine = df[df["method"] == "engine"]
 
 # -------- Execution Time --------
 plt.figure(figsize=(10, 6))
@@ -16,11 +21,23 @@ plt.figure(figsize=(10, 6))
 plt.plot(baseline["size"], baseline["time_ms"], label="Baseline")
 plt.plot(parallel_streams["size"], parallel_streams["time_ms"], label="Parallel Streams")
 plt.plot(vectorized["size"], vectorized["time_ms"], label="Vectorized")
+if not vector_api.empty:
+    plt.plot(vector_api["size"], vector_api["time_ms"], label="Vector API")
+if not vector_api_float.empty:
+    plt.plot(vector_api_float["size"], vector_api_float["time_ms"], label="Vector API (float)")
+if not vector_api_mixed.empty:
+    plt.plot(vector_api_mixed["size"], vector_api_mixed["time_ms"], label="Vector API (mixed)")
+if not engine.empty:
+    plt.plot(engine["size"], engine["time_ms"], linestyle=":", label="MatrixEngine")
 
 for th in parallel_threads["threads"].unique():
     subset = parallel_threads[parallel_threads["threads"] == th]
     plt.plot(subset["size"], subset["time_ms"], label=f"ThreadPool {th} threads")
 
+for th in forkjoin["threads"].unique():
+    subset = forkjoin[forkjoin["threads"] == th]
+    plt.plot(subset["size"], subset["time_ms"], linestyle="--", label=f"ForkJoin {th} threads")
+
 plt.xlabel("Matrix size (n x n)")
 plt.ylabel("Time (ms)")
 plt.title("Execution Time")
@@ -36,11 +53,23 @@ plt.figure(figsize=(10, 6))
 plt.plot(baseline["size"], baseline["speedup"], label="Baseline")
 plt.plot(parallel_streams["size"], parallel_streams["speedup"], label="Parallel Streams")
 plt.plot(vectorized["size"], vectorized["speedup"], label="Vectorized")
+if not vector_api.empty:
+    plt.plot(vector_api["size"], vector_api["speedup"], label="Vector API")
+if not vector_api_float.empty:
+    plt.plot(vector_api_float["size"], vector_api_float["speedup"], label="Vector API (float)")
+if not vector_api_mixed.empty:
+    plt.plot(vector_api_mixed["size"], vector_api_mixed["speedup"], label="Vector API (mixed)")
+if not engine.empty:
+    plt.plot(engine["size"], engine["speedup"], linestyle=":", label="MatrixEngine")
 
 for th in parallel_threads["threads"].unique():
     subset = parallel_threads[parallel_threads["threads"] == th]
     plt.plot(subset["size"], subset["speedup"], label=f"ThreadPool {th} threads")
 
+for th in forkjoin["threads"].unique():
+    subset = forkjoin[forkjoin["threads"] == th]
+    plt.plot(subset["size"], subset["speedup"], linestyle="--", label=f"ForkJoin {th} threads")
+
 plt.xlabel("Matrix size (n x n)")
 plt.ylabel("Speedup")
 plt.title("Speedup Comparison")
@@ -57,6 +86,10 @@ for th in parallel_threads["threads"].unique():
     subset = parallel_threads[parallel_threads["threads"] == th]
     plt.plot(subset["size"], subset["efficiency"], label=f"{th} threads")
 
+for th in forkjoin["threads"].unique():
+    subset = forkjoin[forkjoin["threads"] == th]
+    plt.plot(subset["size"], subset["efficiency"], linestyle="--", label=f"ForkJoin {th} threads")
+
 plt.xlabel("Matrix size (n x n)")
 plt.ylabel("Efficiency")
 plt.title("Parallel Efficiency")
@@ -0,0 +1,181 @@
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+
+/**
+ * Autotuning mode: searches the kernel parameters for this host and saves
+ * them as its TuningProfile, which the kernels load at startup.
+ *
+ * Every candidate is timed on random matrices (one warm-up run, then the
+ * best of RUNS). Candidates are tried from the plainest one (smallest
+ * block, fewest threads, fewest Strassen levels), and a later one only
+ * wins when it is at least NOISE faster, so timing jitter does not pick
+ * e.g. more threads than cores. The searches are:
+ *  - tile size of the tiled kernel, 16 to 256 while three tiles fit in L2,
+ *  - PackedGemm cache blocks: kc around the L1-derived default, then mc
+ *    around the L2-derived one (nc stays derived from L3, it only matters
+ *    for matrices larger than the tuning size). Blocks are only tuned up
+ *    to the tuning size: PackedGemm clamps a block to the matrix, so all
+ *    candidates from size up would run the same code,
+ *  - threads of the parallel kernels: powers of two up to twice the cores,
+ *    and the core count itself,
+ *  - Strassen crossover: one to three levels of recursion on a product of
+ *    twice the tuning size, against none,
+ *  - parallel threshold: the smallest size at which fork/join with the
+ *    tuned threads beats the sequential kernel.
+ * A search left without candidates by a small tuning size (tiles start at
+ * 16, Strassen crossovers at 64) keeps the default value. The profile is
+ * made current while tuning, so later searches run with the earlier
+ * winners (e.g. Strassen leaves with the tuned blocks).
+ *
+ * Arguments: [size] [profile file] (defaults: 512 and TuningProfile.defaultFile())
+ */
+public class AutoTuner {
+
+    private static final int RUNS = 3;
+
+    // Relative gain a later candidate needs to replace the current best
+    private static final double NOISE = 0.03;
+
+    public static void main(String[] args) throws IOException {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 512;
+        Path file = args.length > 1 ? Paths.get(args[1]) : TuningProfile.defaultFile();
+
+        System.out.println("Tuning for " + TuningProfile.host() + " with " + size + " x " + size + " matrices");
+        TuningProfile profile = tune(size);
+        profile.save(file);
+
+        System.out.println("Saved " + profile);
+    }
+
+    /**
+     * Runs every search at the given size and returns the winners.
+     */
+    public static TuningProfile tune(int size) {
+        Random rand = new Random(42);
+        DenseMatrix A = DenseMatrix.random(size, size, rand);
+        DenseMatrix B = DenseMatrix.random(size, size, rand);
+
+        TuningProfile profile = new TuningProfile();
+        profile.source = "tuned, not saved";
+        TuningProfile.use(profile);
+
+        List<Integer> tiles = new ArrayList<>();
+        for (int tile : new int[]{16, 24, 32, 48, 64, 96, 128, 192, 256}) {
+            if (tile <= size && 3L * tile * tile * 8 <= CacheInfo.L2) tiles.add(tile);
+        }
+        profile.tile = fastestOrKeep("tile", profile.tile, tiles,
+                tile -> () -> OptimizedMatrix.multiplyTiled(A, B, tile));
+
+        profile.kc = fastestOrKeep("kc", profile.kc, around(profile.kc, 8, size),
+                kc -> () -> PackedGemm.multiply(A, B, profile.mc, kc, profile.nc));
+        profile.mc = fastestOrKeep("mc", profile.mc, around(profile.mc, PackedGemm.MR, size),
+                mc -> () -> PackedGemm.multiply(A, B, mc, profile.kc, profile.nc));
+
+        int cores = Runtime.getRuntime().availableProcessors();
+        TreeSet<Integer> threads = new TreeSet<>();
+        for (int t = 1; t <= 2 * cores; t *= 2) threads.add(t);
+        threads.add(cores);
+        profile.threads = fastest("threads", new ArrayList<>(threads),
+                t -> () -> ForkJoinMatrix.multiply(A, B, t));
+
+        profile.strassenCrossover = tuneCrossover(2 * size, profile.strassenCrossover, rand);
+        profile.parallelMinFlops = tuneParallel(size, profile, rand);
+        return profile;
+    }
+
+    // Crossover with the fastest number of Strassen levels at size n
+    // (n itself means no recursion, i.e. Strassen only above n)
+    private static int tuneCrossover(int n, int current, Random rand) {
+        DenseMatrix A = DenseMatrix.random(n, n, rand);
+        DenseMatrix B = DenseMatrix.random(n, n, rand);
+
+        // From no recursion down to three levels
+        List<Integer> crossovers = new ArrayList<>();
+        for (int c = n; c >= n / 8 && c >= 64; c /= 2) {
+            crossovers.add(c);
+        }
+        return fastestOrKeep("Strassen crossover at " + n, current, crossovers,
+                c -> () -> StrassenMatrix.multiply(A, B, c));
+    }
+
+    // FLOPs of the smallest product where fork/join beats the sequential kernel
+    private static double tuneParallel(int size, TuningProfile profile, Random rand) {
+        if (profile.threads == 1 || Runtime.getRuntime().availableProcessors() == 1) {
+            System.out.println("parallel threshold: skipped, one thread is fastest");
+            return profile.parallelMinFlops;
+        }
+
+        for (int n = 64; n <= size; n += n / 2) {
+            DenseMatrix A = DenseMatrix.random(n, n, rand);
+            DenseMatrix B = DenseMatrix.random(n, n, rand);
+
+            double sequential = time(() -> VectorizedMatrix.multiplySimd(A, B));
+            double parallel = time(() -> ForkJoinMatrix.multiply(A, B, profile.threads));
+            System.out.printf("parallel threshold %5d: sequential %.6f s, fork/join %.6f s%n", n, sequential, parallel);
+
+            if (parallel < sequential * (1 - NOISE)) {
+                return 2.0 * n * n * n;
+            }
+        }
+        // Not faster up to the tuning size: only larger products go parallel
+        return Math.nextUp(2.0 * size * size * size);
+    }
+
+    // Half, same and double of a default block, rounded to a multiple of step,
+    // without the blocks that PackedGemm would clamp to a size x size matrix
+    private static List<Integer> around(int value, int step, int size) {
+        TreeSet<Integer> candidates = new TreeSet<>();
+        for (int v : new int[]{value / 2, value, value * 2}) {
+            int block = Math.max(step, v / step * step);
+            if (block < size) candidates.add(block);
+        }
+        return new ArrayList<>(candidates);
+    }
+
+    // Fastest candidate, or the current value when the tuning size leaves no candidate
+    private static int fastestOrKeep(String what, int current, List<Integer> candidates,
+                                     IntFunction<Supplier<?>> kernel) {
+        if (candidates.isEmpty()) {
+            System.out.println(what + ": skipped, no candidate fits the tuning size, keeping " + current);
+            return current;
+        }
+        return fastest(what, candidates, kernel);
+    }
+
+    // Times every candidate, prints the times and returns the fastest
+    // (the earlier one unless a later one is NOISE faster)
+    private static int fastest(String what, List<Integer> candidates, IntFunction<Supplier<?>> kernel) {
+        int best = candidates.get(0);
+        double bestTime = Double.MAX_VALUE;
+
+        for (int candidate : candidates) {
+            double t = time(kernel.apply(candidate));
+            System.out.printf("%s %5d: %.6f s%n", what, candidate, t);
+            if (t < bestTime * (1 - NOISE)) {
+                bestTime = t;
+                best = candidate;
+            }
+        }
+        System.out.println(" -> " + what + " = " + best);
+        return best;
+    }
+
+    // Best of RUNS after one warm-up run, in seconds
+    private static double time(Supplier<?> kernel) {
+        kernel.get();
+        double best = Double.MAX_VALUE;
+        for (int r = 0; r < RUNS; r++) {
+            long start = System.nanoTime();
+            kernel.get();
+            best = Math.min(best, (System.nanoTime() - start) / 1e9);
+        }
+        return best;
+    }
+}
@@ -1,14 +1,15 @@
 public class BaselineMatrix {
 
-    // Classic sequential matrix multiplication O(n^3)
+    // Classic sequential matrix multiplication O(m * k * n)
     public static double[][] multiply(double[][] A, double[][] B) {
-        int n = A.length;
-        double[][] C = new double[n][n];
+        DenseMatrix.checkMultiply(A, B);
+        int m = A.length, kDim = B.length, n = DenseMatrix.cols(B);
+        double[][] C = new double[m][n];
 
-        for (int i = 0; i < n; i++) {
+        for (int i = 0; i < m; i++) {
             for (int j = 0; j < n; j++) {
                 double sum = 0;
-                for (int k = 0; k < n; k++) {
+                for (int k = 0; k < kDim; k++) {
                     sum += A[i][k] * B[k][j];
                 }
                 C[i][j] = sum;
@@ -17,4 +18,9 @@ public class BaselineMatrix {
 
         return C;
     }
+
+    // Classic sequential multiplication on flat row-major storage
+    public static DenseMatrix multiply(DenseMatrix A, DenseMatrix B) {
+        return OptimizedMatrix.multiplyBasic(A, B);
+    }
 }
@@ -1,5 +1,6 @@
 import java.io.FileWriter;
 import java.io.IOException;
+import java.util.TreeSet;
 import java.util.concurrent.ExecutionException;
 
 public class BenchmarkTask3 {
@@ -13,20 +14,31 @@ public class BenchmarkTask3 {
         return M;
     }
 
-    // Get used memory in bytes
-    public static long measureMemory() {
-        Runtime rt = Runtime.getRuntime();
-        rt.gc();
-        return rt.totalMemory() - rt.freeMemory();
+    // Powers of two up to twice the cores, the core count and the tuned thread count
+    static int[] threadCounts() {
+        int cores = Runtime.getRuntime().availableProcessors();
+        TreeSet<Integer> counts = new TreeSet<>();
+        for (int t = 2; t <= 2 * cores; t *= 2) counts.add(t);
+        counts.add(cores);
+        counts.add(TuningProfile.current().threads);
+        return counts.stream().mapToInt(Integer::intValue).toArray();
     }
 
     public static void main(String[] args) throws IOException, InterruptedException, ExecutionException {
 
         int[] sizes = {200, 300, 400, 500};
-        int[] threads = {2, 4, 8};
+        int[] threads = threadCounts();
+
+        System.out.println("Tuning profile: " + TuningProfile.current());
+        System.out.println("Vector API lanes: " + VectorizedMatrix.simdLanes()
+                + (VectorizedMatrix.VECTOR_API_AVAILABLE ? "" : " (jdk.incubator.vector not loaded, scalar fallback)"));
+
+        // Picks a kernel per size from the shape and the cores
+        MatrixEngine engine = new MatrixEngine();
+        engine.log = decision -> System.out.println("MatrixEngine: " + decision);
 
         FileWriter csv = new FileWriter("../results/task3_results.csv");
-        csv.write("size,method,threads,time_ms,speedup,efficiency,memory_bytes\n");
+        csv.write("size,method,threads,time_ms,speedup,efficiency," + RunMetrics.CSV_HEADER + "\n");
 
         for (int n : sizes) {
 
@@ -34,52 +46,121 @@ public class BenchmarkTask3 {
             double[][] B = generateMatrix(n);
 
             // Baseline
-            long mem0 = measureMemory();
+            RunMetrics metricsBase = RunMetrics.start();
             long t0 = System.nanoTime();
             BaselineMatrix.multiply(A, B);
             long baseTime = (System.nanoTime() - t0) / 1_000_000;
-            long memBase = measureMemory() - mem0;
+            metricsBase.stop();
 
-            csv.write(n + ",baseline,1," + baseTime + ",1,1," + memBase + "\n");
+            csv.write(n + ",baseline,1," + baseTime + ",1,1," + metricsBase.toCsv() + "\n");
 
             // ThreadPool
             for (int th : threads) {
-                long mem1 = measureMemory();
+                RunMetrics metricsPar = RunMetrics.start();
                 long t1 = System.nanoTime();
                 ParallelMatrix.multiply(A, B, th);
                 long parTime = (System.nanoTime() - t1) / 1_000_000;
-                long memPar = measureMemory() - mem1;
+                metricsPar.stop();
 
                 double speedup = (double) baseTime / parTime;
                 double eff = speedup / th;
 
                 csv.write(n + ",parallel_threads," + th + "," +
-                        parTime + "," + speedup + "," + eff + "," + memPar + "\n");
+                        parTime + "," + speedup + "," + eff + "," + metricsPar.toCsv() + "\n");
+            }
+
+            // ForkJoin (work stealing, recursive splitting)
+            for (int th : threads) {
+                RunMetrics metricsFJ = RunMetrics.start();
+                long t5 = System.nanoTime();
+                ForkJoinMatrix.multiply(A, B, th);
+                long fjTime = (System.nanoTime() - t5) / 1_000_000;
+                metricsFJ.stop();
+
+                double speedup = (double) baseTime / fjTime;
+                double eff = speedup / th;
+
+                csv.write(n + ",forkjoin," + th + "," +
+                        fjTime + "," + speedup + "," + eff + "," + metricsFJ.toCsv() + "\n");
             }
 
             // Parallel Streams
-            long mem2 = measureMemory();
+            RunMetrics metricsPS = RunMetrics.start();
             long t2 = System.nanoTime();
             ParallelStreamMatrix.multiply(A, B);
             long psTime = (System.nanoTime() - t2) / 1_000_000;
-            long memPS = measureMemory() - mem2;
+            metricsPS.stop();
 
             double speedupPS = (double) baseTime / psTime;
 
             csv.write(n + ",parallel_streams," +
                     Runtime.getRuntime().availableProcessors() + "," +
-                    psTime + "," + speedupPS + ",-," + memPS + "\n");
+                    psTime + "," + speedupPS + ",-," + metricsPS.toCsv() + "\n");
 
             // Vectorized
-            long mem3 = measureMemory();
+            RunMetrics metricsVec = RunMetrics.start();
             long t3 = System.nanoTime();
             VectorizedMatrix.multiply(A, B);
             long vecTime = (System.nanoTime() - t3) / 1_000_000;
-            long memVec = measureMemory() - mem3;
+            metricsVec.stop();
 
             double speedupVec = (double) baseTime / vecTime;
 
-            csv.write(n + ",vectorized,1," + vecTime + "," + speedupVec + ",1," + memVec + "\n");
+            csv.write(n + ",vectorized,1," + vecTime + "," + speedupVec + ",1," + metricsVec.toCsv() + "\n");
+
+            // Vector API (falls back to scalar code without jdk.incubator.vector)
+            DenseMatrix flatA = DenseMatrix.of(A);
+            DenseMatrix flatB = DenseMatrix.of(B);
+
+            RunMetrics metricsSimd = RunMetrics.start();
+            long t4 = System.nanoTime();
+            DenseMatrix simdC = VectorizedMatrix.multiplySimd(flatA, flatB);
+            long simdTime = (System.nanoTime() - t4) / 1_000_000;
+            metricsSimd.stop();
+
+            double speedupSimd = (double) baseTime / simdTime;
+
+            csv.write(n + ",vector_api,1," + simdTime + "," + speedupSimd + ",1," + metricsSimd.toCsv() + "\n");
+
+            // Same kernel in float and in mixed precision, with the error against the double result
+            FloatMatrix floatA = FloatMatrix.of(flatA);
+            FloatMatrix floatB = FloatMatrix.of(flatB);
+
+            RunMetrics metricsFloat = RunMetrics.start();
+            long t5 = System.nanoTime();
+            FloatMatrix floatC = VectorizedMatrix.multiplySimd(floatA, floatB);
+            long floatTime = (System.nanoTime() - t5) / 1_000_000;
+            metricsFloat.stop();
+
+            double speedupFloat = (double) baseTime / floatTime;
+            System.out.printf("n=%d vector_api_float: relative error %.3g%n", n,
+                    FloatMatrix.relativeError(floatC, simdC));
+
+            csv.write(n + ",vector_api_float,1," + floatTime + "," + speedupFloat + ",1," + metricsFloat.toCsv() + "\n");
+
+            RunMetrics metricsMixed = RunMetrics.start();
+            long t7 = System.nanoTime();
+            DenseMatrix mixedC = VectorizedMatrix.multiplySimdMixed(floatA, floatB);
+            long mixedTime = (System.nanoTime() - t7) / 1_000_000;
+            metricsMixed.stop();
+
+            double speedupMixed = (double) baseTime / mixedTime;
+            System.out.printf("n=%d vector_api_mixed: relative error %.3g%n", n,
+                    FloatMatrix.relativeError(mixedC, simdC));
+
+            csv.write(n + ",vector_api_mixed,1," + mixedTime + "," + speedupMixed + ",1," + metricsMixed.toCsv() + "\n");
+
+            // MatrixEngine (whichever kernel it picks)
+            RunMetrics metricsEngine = RunMetrics.start();
+            long t6 = System.nanoTime();
+            engine.multiply(flatA, flatB);
+            long engineTime = (System.nanoTime() - t6) / 1_000_000;
+            metricsEngine.stop();
+
+            double speedupEngine = (double) baseTime / engineTime;
+
+            csv.write(n + ",engine," + engine.threads + "," + engineTime + "," + speedupEngine + ","
+                    + speedupEngine / engine.threads + "," + metricsEngine.toCsv() + "\n");
         }
 
         csv.close();
@@ -0,0 +1,96 @@
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Work-stealing parallel multiplication with cache-oblivious splitting.
+ *
+ * The product C = A * B is split recursively along its largest dimension:
+ *  - rows of C (m) or columns of C (n): both halves are independent and
+ *    are forked as separate tasks,
+ *  - the shared dimension (k): both halves write the same block of C, so
+ *    they run one after the other inside the same task.
+ * Once every dimension is at most LEAF, the block is handed to the tiled
+ * kernel from OptimizedMatrix, with this host's tuned tile (TuningProfile)
+ * capped at LEAF. Idle workers steal pending halves, which
+ * balances the load without any static chunking.
+ *
+ * Pools are created once per parallelism level and reused across calls.
+ */
+public class ForkJoinMatrix {
+
+    // Largest block (per dimension) computed by a single leaf task
+    public static final int LEAF = 128;
+
+    private static final Map<Integer, ForkJoinPool> POOLS = new HashMap<>();
+
+    // Multiplication with this host's tuned thread count (TuningProfile, one per core until tuned)
+    public static DenseMatrix multiply(DenseMatrix A, DenseMatrix B) {
+        return multiply(A, B, TuningProfile.current().threads);
+    }
+
+    // Multiplication on a shared pool with the given number of workers
+    public static DenseMatrix multiply(DenseMatrix A, DenseMatrix B, int threads) {
+        return multiply(A, B, pool(threads));
+    }
+
+    public static double[][] multiply(double[][] A, double[][] B, int threads) {
+        return multiply(DenseMatrix.of(A), DenseMatrix.of(B), threads).toArray();
+    }
+
+    public static DenseMatrix multiply(DenseMatrix A, DenseMatrix B, ForkJoinPool pool) {
+        DenseMatrix.checkMultiply(A, B);
+        DenseMatrix C = new DenseMatrix(A.rows, B.cols);
+        int tile = Math.min(TuningProfile.current().tile, LEAF);
+        pool.invoke(new MultiplyTask(A.rowMajor(), B.rowMajor(), C, tile));
+        return C;
+    }
+
+    // Returns the shared pool for this parallelism level, creating it on first use
+    public static synchronized ForkJoinPool pool(int threads) {
+        return POOLS.computeIfAbsent(threads, ForkJoinPool::new);
+    }
+
+    // Computes C += A * B on views of the operands
+    private static class MultiplyTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final DenseMatrix A, B, C;
+
+        // Tile size used by the leaf kernel
+        private final int tile;
+
+        MultiplyTask(DenseMatrix A, DenseMatrix B, DenseMatrix C, int tile) {
+            this.A = A;
+            this.B = B;
+            this.C = C;
+            this.tile = tile;
+        }
+
+        @Override
+        protected void compute() {
+            int m = A.rows, n = B.cols, k = A.cols;
+
+            if (m <= LEAF && n <= LEAF && k <= LEAF) {
+                OptimizedMatrix.multiplyTiledInto(A, B, C, tile);
+                return;
+            }
+
+            if (m >= n && m >= k) {
+                int h = m / 2;
+                invokeAll(new MultiplyTask(A.view(0, 0, h, k), B, C.view(0, 0, h, n), tile),
+                          new MultiplyTask(A.view(h, 0, m - h, k), B, C.view(h, 0, m - h, n), tile));
+            } else if (n >= k) {
+                int h = n / 2;
+                invokeAll(new MultiplyTask(A, B.view(0, 0, k, h), C.view(0, 0, m, h), tile),
+                          new MultiplyTask(A, B.view(0, h, k, n - h), C.view(0, h, m, n - h), tile));
+            } else {
+                // Both halves accumulate into the same C block: run them in sequence
+                int h = k / 2;
+                new MultiplyTask(A.view(0, 0, m, h), B.view(0, 0, h, n), C, tile).compute();
+                new MultiplyTask(A.view(0, h, m, k - h), B.view(h, 0, k - h, n), C, tile).compute();
+            }
+        }
+    }
+}
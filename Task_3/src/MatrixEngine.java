@@ -0,0 +1,405 @@
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.IntSupplier;
+import java.util.function.Predicate;
+import java.util.logging.Logger;
+
+/**
+ * Single entry point for matrix products, so callers no longer pick a
+ * kernel class by hand.
+ *
+ * The engine keeps a registry of kernels per operand combination (dense or
+ * CSR on either side, any shape, or a dense matrix times a vector). Each
+ * call is described as a Problem
+ * (dimensions, density of the CSR operands, FLOPs, cores and cluster
+ * members), and the first registered kernel whose rule accepts it runs.
+ * Kernels registered later are tried first. The default dense rules are:
+ *  - cluster when a cluster is attached (attachCluster) and the product
+ *    is worth shipping,
+ *  - tall_skinny, wide or short_wide when one of m, n or k is at least
+ *    RectangularMatrix.SKEW times the other two and the product is large
+ *    enough to split (see RectangularMatrix),
+ *  - fork_join when there are several cores and the product is large
+ *    enough to split,
+ *  - strassen when every dimension allows at least one Strassen level,
+ *  - cache_friendly for tiny products, where packing does not pay off,
+ *  - simd when the Vector API module is present,
+ *  - packed otherwise.
+ * A CSR operand at least denseDensity full is converted to dense first
+ * (densify), because the dense kernels then do the same work faster.
+ * Matrix-vector products run gemv, or gemv_parallel when A has at least
+ * gemvParallelBytes and there are several cores.
+ *
+ * Every decision goes to log (java.util.logging at FINE by default). A
+ * kernel can be forced per call, per operand combination with override(),
+ * or for the whole JVM with -Dmatrix.kernel=name. The remaining kernels
+ * (basic, tiled, vectorized, thread_pool, parallel_stream) only run when
+ * forced.
+ *
+ * Configure an engine before sharing it between threads.
+ */
+public class MatrixEngine {
+
+    private static final Logger LOG = Logger.getLogger(MatrixEngine.class.getName());
+
+    // JVM-wide override, e.g. -Dmatrix.kernel=tiled
+    public static final String KERNEL_PROPERTY = "matrix.kernel";
+
+    // Rule of the kernels that only run when forced
+    public static final Predicate<Problem> FORCED_ONLY = p -> false;
+
+    public enum Operands { DENSE_DENSE, SPARSE_DENSE, DENSE_SPARSE, SPARSE_SPARSE, DENSE_VECTOR }
+
+    // Settings read by the rules and kernels, tuned ones from this host's TuningProfile
+    public int threads = TuningProfile.current().threads;
+    public int tile = TuningProfile.current().tile;
+    public int strassenCrossover = TuningProfile.current().strassenCrossover;
+    public double smallFlops = 2.0 * 32 * 32 * 32;           // below this, no packing
+    public double parallelMinFlops = TuningProfile.current().parallelMinFlops; // below this, no fork/join
+    public double clusterMinFlops = 2.0 * 1024 * 1024 * 1024; // below this, stay local
+    public double denseDensity = 0.1;                        // CSR operands this full go dense
+    public double gemvParallelBytes = 4.0 * CacheInfo.L2;    // smaller GEMV matrices stay sequential
+
+    // Receives every decision
+    public Consumer<Decision> log = decision -> LOG.fine(decision::toString);
+
+    private final Map<Operands, List<Kernel<?, ?, ?>>> kernels = new EnumMap<>(Operands.class);
+    private final Map<Operands, String> overrides = new EnumMap<>(Operands.class);
+    private IntSupplier members = () -> 1;
+
+    /**
+     * Problem the rules decide on.
+     */
+    public static class Problem {
+        public final Operands operands;
+        public final int m, k, n;
+        public final double densityA, densityB; // 1 for dense operands
+        public final double flops;              // 2 per multiply-add of stored entries
+        public final int cores;
+        public final int members;               // 1 without a cluster
+
+        Problem(Operands operands, int m, int k, int n, double densityA, double densityB, int cores, int members) {
+            this.operands = operands;
+            this.m = m;
+            this.k = k;
+            this.n = n;
+            this.densityA = densityA;
+            this.densityB = densityB;
+            this.flops = 2.0 * m * k * n * densityA * densityB;
+            this.cores = cores;
+            this.members = members;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.US, "%s %dx%dx%d (density %.3g / %.3g, %.3g GFLOP, %d cores, %d members)",
+                    operands.name().toLowerCase(), m, k, n, densityA, densityB, flops / 1e9, cores, members);
+        }
+    }
+
+    /**
+     * Kernel picked for one product, and why: "rule", "override" or "requested".
+     */
+    public static class Decision {
+        public final Problem problem;
+        public final String kernel;
+        public final String reason;
+
+        Decision(Problem problem, String kernel, String reason) {
+            this.problem = problem;
+            this.kernel = kernel;
+            this.reason = reason;
+        }
+
+        @Override
+        public String toString() {
+            return problem + " -> " + kernel + " (" + reason + ")";
+        }
+    }
+
+    /**
+     * A named kernel for one operand combination. The engine picks it on
+     * its own when rule accepts the problem (FORCED_ONLY: never).
+     */
+    public static class Kernel<A, B, R> {
+        public final String name;
+        public final Operands operands;
+        final Predicate<Problem> rule;
+        final BiFunction<A, B, R> multiply;
+
+        private Kernel(String name, Operands operands, Predicate<Problem> rule, BiFunction<A, B, R> multiply) {
+            this.name = name;
+            this.operands = operands;
+            this.rule = rule;
+            this.multiply = multiply;
+        }
+    }
+
+    public static Kernel<DenseMatrix, DenseMatrix, DenseMatrix> dense(
+            String name, Predicate<Problem> rule, BiFunction<DenseMatrix, DenseMatrix, DenseMatrix> multiply) {
+        return new Kernel<>(name, Operands.DENSE_DENSE, rule, multiply);
+    }
+
+    public static Kernel<CSRMatrix, DenseMatrix, DenseMatrix> sparseDense(
+            String name, Predicate<Problem> rule, BiFunction<CSRMatrix, DenseMatrix, DenseMatrix> multiply) {
+        return new Kernel<>(name, Operands.SPARSE_DENSE, rule, multiply);
+    }
+
+    public static Kernel<DenseMatrix, CSRMatrix, DenseMatrix> denseSparse(
+            String name, Predicate<Problem> rule, BiFunction<DenseMatrix, CSRMatrix, DenseMatrix> multiply) {
+        return new Kernel<>(name, Operands.DENSE_SPARSE, rule, multiply);
+    }
+
+    public static Kernel<CSRMatrix, CSRMatrix, CSRMatrix> sparse(
+            String name, Predicate<Problem> rule, BiFunction<CSRMatrix, CSRMatrix, CSRMatrix> multiply) {
+        return new Kernel<>(name, Operands.SPARSE_SPARSE, rule, multiply);
+    }
+
+    public static Kernel<DenseMatrix, double[], double[]> vector(
+            String name, Predicate<Problem> rule, BiFunction<DenseMatrix, double[], double[]> multiply) {
+        return new Kernel<>(name, Operands.DENSE_VECTOR, rule, multiply);
+    }
+
+    /**
+     * Engine with the kernels of Tasks 2 and 3, and the override from
+     * -Dmatrix.kernel if set.
+     */
+    public MatrixEngine() {
+        // Registered from the fallback up, since later registrations are tried first
+        register(dense("basic", FORCED_ONLY, OptimizedMatrix::multiplyBasic));
+        register(dense("tiled", FORCED_ONLY, (A, B) -> OptimizedMatrix.multiplyTiled(A, B, tile)));
+        register(dense("vectorized", FORCED_ONLY, VectorizedMatrix::multiply));
+        register(dense("thread_pool", FORCED_ONLY, this::threadPool));
+        // A parallel stream started inside a pool runs on that pool
+        register(dense("parallel_stream", FORCED_ONLY, (A, B) ->
+                ForkJoinMatrix.pool(threads).submit(() -> ParallelStreamMatrix.multiply(A, B)).join()));
+        register(dense("packed", p -> true, PackedGemm::multiply));
+        register(dense("simd", p -> VectorizedMatrix.VECTOR_API_AVAILABLE, VectorizedMatrix::multiplySimd));
+        register(dense("cache_friendly", p -> p.flops <= smallFlops, OptimizedMatrix::multiplyCacheFriendly));
+        register(dense("strassen", p -> Math.min(p.m, Math.min(p.k, p.n)) > strassenCrossover,
+                (A, B) -> StrassenMatrix.multiply(A, B, strassenCrossover)));
+        register(dense("fork_join", p -> p.cores > 1 && p.flops >= parallelMinFlops
+                        && Math.max(p.m, p.n) > ForkJoinMatrix.LEAF,
+                (A, B) -> ForkJoinMatrix.multiply(A, B, threads)));
+        register(dense("tall_skinny", p -> parallel(p) && p.m >= RectangularMatrix.SKEW * Math.max(p.k, p.n),
+                (A, B) -> RectangularMatrix.multiplyTallSkinny(A, B, threads)));
+        register(dense("wide", p -> parallel(p) && p.n >= RectangularMatrix.SKEW * Math.max(p.m, p.k),
+                (A, B) -> RectangularMatrix.multiplyWide(A, B, threads)));
+        register(dense("short_wide", p -> parallel(p) && p.k >= RectangularMatrix.SKEW * Math.max(p.m, p.n),
+                (A, B) -> RectangularMatrix.multiplyShortWide(A, B, threads)));
+
+        register(sparseDense("csr", p -> true, CSRMatrix::multiply));
+        register(sparseDense("csr_parallel", p -> p.cores > 1 && p.flops >= parallelMinFlops, (A, B) ->
+                ForkJoinMatrix.pool(threads).submit(() -> A.multiplyParallel(B, threads)).join()));
+        register(sparseDense("densify", p -> p.densityA >= denseDensity, (A, B) -> multiply(A.toDense(), B)));
+
+        register(denseSparse("csr", p -> true, (A, B) -> B.multiplyLeft(A)));
+        register(denseSparse("densify", p -> p.densityB >= denseDensity, (A, B) -> multiply(A, B.toDense())));
+
+        register(sparse("csr", p -> true, CSRMatrix::multiply));
+        register(sparse("densify", p -> p.densityA >= denseDensity && p.densityB >= denseDensity,
+                (A, B) -> CSRMatrix.of(multiply(A.toDense(), B.toDense()))));
+
+        register(vector("gemv", p -> true, OptimizedMatrix::multiplyVector));
+        register(vector("gemv_parallel", p -> p.cores > 1 && 8.0 * p.m * p.k >= gemvParallelBytes,
+                (A, x) -> RectangularMatrix.multiplyVector(A, x, threads)));
+
+        String forced = System.getProperty(KERNEL_PROPERTY);
+        if (forced != null && !forced.isBlank()) {
+            override(forced.trim());
+        }
+    }
+
+    /**
+     * Adds a kernel (replacing one with the same name and operands). It is
+     * tried before every kernel registered so far.
+     */
+    public MatrixEngine register(Kernel<?, ?, ?> kernel) {
+        List<Kernel<?, ?, ?>> list = kernels.computeIfAbsent(kernel.operands, o -> new ArrayList<>());
+        list.removeIf(k -> k.name.equals(kernel.name));
+        list.add(0, kernel);
+        return this;
+    }
+
+    /**
+     * Sends dense products of at least clusterMinFlops to multiply while
+     * members reports more than one member.
+     */
+    public MatrixEngine attachCluster(IntSupplier members,
+                                      BiFunction<DenseMatrix, DenseMatrix, DenseMatrix> multiply) {
+        this.members = members;
+        return register(dense("cluster", p -> p.members > 1 && p.flops >= clusterMinFlops, multiply));
+    }
+
+    /**
+     * Forces a kernel for one operand combination (null restores the rules).
+     */
+    public MatrixEngine override(Operands operands, String kernel) {
+        if (kernel == null) {
+            overrides.remove(operands);
+        } else {
+            overrides.put(operands, find(operands, kernel).name);
+        }
+        return this;
+    }
+
+    /**
+     * Forces a kernel for every operand combination that has one by that name.
+     */
+    public MatrixEngine override(String kernel) {
+        boolean found = false;
+        for (Operands operands : Operands.values()) {
+            Kernel<?, ?, ?> match = lookup(operands, kernel);
+            if (match != null) {
+                overrides.put(operands, match.name);
+                found = true;
+            }
+        }
+        if (!found) {
+            throw new IllegalArgumentException("Unknown kernel: " + kernel);
+        }
+        return this;
+    }
+
+    /**
+     * Names of the kernels for an operand combination, in the order they are tried.
+     */
+    public List<String> kernels(Operands operands) {
+        List<String> names = new ArrayList<>();
+        for (Kernel<?, ?, ?> kernel : kernels.getOrDefault(operands, List.of())) {
+            names.add(kernel.name);
+        }
+        return names;
+    }
+
+    public DenseMatrix multiply(DenseMatrix A, DenseMatrix B) {
+        return multiply(A, B, null);
+    }
+
+    /**
+     * A * B with the named kernel, or the engine's choice when kernel is null.
+     */
+    public DenseMatrix multiply(DenseMatrix A, DenseMatrix B, String kernel) {
+        DenseMatrix.checkMultiply(A, B);
+        return run(problem(Operands.DENSE_DENSE, A.rows, A.cols, B.cols, 1.0, 1.0), A, B, kernel);
+    }
+
+    public DenseMatrix multiply(CSRMatrix A, DenseMatrix B) {
+        return multiply(A, B, null);
+    }
+
+    public DenseMatrix multiply(CSRMatrix A, DenseMatrix B, String kernel) {
+        checkMultiply(A.rows, A.cols, B.rows, B.cols);
+        return run(problem(Operands.SPARSE_DENSE, A.rows, A.cols, B.cols, A.density(), 1.0), A, B, kernel);
+    }
+
+    public DenseMatrix multiply(DenseMatrix A, CSRMatrix B) {
+        return multiply(A, B, null);
+    }
+
+    public DenseMatrix multiply(DenseMatrix A, CSRMatrix B, String kernel) {
+        checkMultiply(A.rows, A.cols, B.rows, B.cols);
+        return run(problem(Operands.DENSE_SPARSE, A.rows, A.cols, B.cols, 1.0, B.density()), A, B, kernel);
+    }
+
+    public CSRMatrix multiply(CSRMatrix A, CSRMatrix B) {
+        return multiply(A, B, null);
+    }
+
+    public CSRMatrix multiply(CSRMatrix A, CSRMatrix B, String kernel) {
+        checkMultiply(A.rows, A.cols, B.rows, B.cols);
+        return run(problem(Operands.SPARSE_SPARSE, A.rows, A.cols, B.cols, A.density(), B.density()), A, B, kernel);
+    }
+
+    public double[] multiply(DenseMatrix A, double[] x) {
+        return multiply(A, x, null);
+    }
+
+    /**
+     * y = A * x (GEMV) with the named kernel, or the engine's choice when kernel is null.
+     */
+    public double[] multiply(DenseMatrix A, double[] x, String kernel) {
+        DenseMatrix.checkMultiply(A, x);
+        return run(problem(Operands.DENSE_VECTOR, A.rows, A.cols, 1, 1.0, 1.0), A, x, kernel);
+    }
+
+    /**
+     * The decision multiply() would make for this problem, without running it.
+     */
+    public Decision decide(Problem problem, String requested) {
+        if (requested != null) {
+            return new Decision(problem, find(problem.operands, requested).name, "requested");
+        }
+        String forced = overrides.get(problem.operands);
+        if (forced != null) {
+            return new Decision(problem, forced, "override");
+        }
+        for (Kernel<?, ?, ?> kernel : kernels.getOrDefault(problem.operands, List.of())) {
+            if (kernel.rule.test(problem)) {
+                return new Decision(problem, kernel.name, "rule");
+            }
+        }
+        throw new IllegalStateException("No kernel accepts " + problem);
+    }
+
+    /**
+     * Problem for an m x k by k x n product on this engine's cores and cluster.
+     */
+    public Problem problem(Operands operands, int m, int k, int n, double densityA, double densityB) {
+        return new Problem(operands, m, k, n, densityA, densityB, threads, members.getAsInt());
+    }
+
+    // Decides, logs and runs
+    @SuppressWarnings("unchecked")
+    private <A, B, R> R run(Problem problem, A a, B b, String requested) {
+        Decision decision = decide(problem, requested);
+        log.accept(decision);
+        Kernel<A, B, R> kernel = (Kernel<A, B, R>) find(problem.operands, decision.kernel);
+        return kernel.multiply.apply(a, b);
+    }
+
+    private Kernel<?, ?, ?> find(Operands operands, String name) {
+        Kernel<?, ?, ?> kernel = lookup(operands, name);
+        if (kernel == null) {
+            throw new IllegalArgumentException("Unknown " + operands.name().toLowerCase() + " kernel: " + name
+                    + " (known: " + kernels(operands) + ")");
+        }
+        return kernel;
+    }
+
+    private Kernel<?, ?, ?> lookup(Operands operands, String name) {
+        for (Kernel<?, ?, ?> kernel : kernels.getOrDefault(operands, List.of())) {
+            if (kernel.name.equalsIgnoreCase(name)) return kernel;
+        }
+        return null;
+    }
+
+    // Several cores and enough work to split
+    private boolean parallel(Problem p) {
+        return p.cores > 1 && p.flops >= parallelMinFlops;
+    }
+
+    private DenseMatrix threadPool(DenseMatrix A, DenseMatrix B) {
+        try {
+            return ParallelMatrix.multiply(A, B, threads);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private static void checkMultiply(int rowsA, int colsA, int rowsB, int colsB) {
+        if (colsA != rowsB) {
+            throw new IllegalArgumentException("Cannot multiply " + rowsA + " x " + colsA
+                    + " by " + rowsB + " x " + colsB);
+        }
+    }
+}
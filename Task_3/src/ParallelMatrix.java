@@ -6,24 +6,25 @@ public class ParallelMatrix {
     public static double[][] multiply(double[][] A, double[][] B, int threads)
             throws InterruptedException, ExecutionException {
 
-        int n = A.length;
-        double[][] C = new double[n][n];
+        DenseMatrix.checkMultiply(A, B);
+        int m = A.length, kDim = B.length, n = DenseMatrix.cols(B);
+        double[][] C = new double[m][n];
 
         ExecutorService executor = Executors.newFixedThreadPool(threads);
         Future<?>[] futures = new Future<?>[threads];
 
-        int chunk = (int) Math.ceil(n * 1.0 / threads);
+        int chunk = (int) Math.ceil(m * 1.0 / threads);
 
         for (int t = 0; t < threads; t++) {
-            int start = t * chunk;
-            int end = Math.min(start + chunk, n);
+            int start = Math.min(t * chunk, m);
+            int end = Math.min(start + chunk, m);
 
             // Each thread computes a block of rows
             futures[t] = executor.submit(() -> {
                 for (int i = start; i < end; i++) {
                     for (int j = 0; j < n; j++) {
                         double sum = 0;
-                        for (int k = 0; k < n; k++) {
+                        for (int k = 0; k < kDim; k++) {
                             sum += A[i][k] * B[k][j];
                         }
                         C[i][j] = sum;
@@ -38,4 +39,45 @@ public class ParallelMatrix {
 
         return C;
     }
+
+    // Same static row chunking on flat storage, each thread runs i-k-j on its rows
+    public static DenseMatrix multiply(DenseMatrix A, DenseMatrix B, int threads)
+            throws InterruptedException, ExecutionException {
+
+        DenseMatrix.checkMultiply(A, B);
+        DenseMatrix Ar = A.rowMajor();
+        DenseMatrix Br = B.rowMajor();
+
+        int m = Ar.rows, n = Br.cols, kDim = Ar.cols;
+        DenseMatrix C = new DenseMatrix(m, n);
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        Future<?>[] futures = new Future<?>[threads];
+
+        int chunk = (int) Math.ceil(m * 1.0 / threads);
+
+        for (int t = 0; t < threads; t++) {
+            int start = Math.min(t * chunk, m);
+            int end = Math.min(start + chunk, m);
+
+            futures[t] = executor.submit(() -> {
+                for (int i = start; i < end; i++) {
+                    int aRow = Ar.offset + i * Ar.rowStride;
+                    int cRow = i * n;
+                    for (int k = 0; k < kDim; k++) {
+                        double a = Ar.data[aRow + k];
+                        int bRow = Br.offset + k * Br.rowStride;
+                        for (int j = 0; j < n; j++) {
+                            C.data[cRow + j] += a * Br.data[bRow + j];
+                        }
+                    }
+                }
+            });
+        }
+
+        for (Future<?> f : futures) f.get();
+        executor.shutdown();
+
+        return C;
+    }
 }
@@ -5,13 +5,14 @@ public class ParallelStreamMatrix {
     // Parallel multiplication using Java parallel streams
     public static double[][] multiply(double[][] A, double[][] B) {
 
-        int n = A.length;
-        double[][] C = new double[n][n];
+        DenseMatrix.checkMultiply(A, B);
+        int m = A.length, kDim = B.length, n = DenseMatrix.cols(B);
+        double[][] C = new double[m][n];
 
-        IntStream.range(0, n).parallel().forEach(i -> {
+        IntStream.range(0, m).parallel().forEach(i -> {
             for (int j = 0; j < n; j++) {
                 double sum = 0;
-                for (int k = 0; k < n; k++) {
+                for (int k = 0; k < kDim; k++) {
                     sum += A[i][k] * B[k][j];
                 }
                 C[i][j] = sum;
@@ -20,4 +21,29 @@ public class ParallelStreamMatrix {
 
         return C;
     }
+
+    // Parallel streams over the rows of a flat matrix (i-k-j per row)
+    public static DenseMatrix multiply(DenseMatrix A, DenseMatrix B) {
+
+        DenseMatrix.checkMultiply(A, B);
+        DenseMatrix Ar = A.rowMajor();
+        DenseMatrix Br = B.rowMajor();
+
+        int n = Br.cols, kDim = Ar.cols;
+        DenseMatrix C = new DenseMatrix(Ar.rows, n);
+
+        IntStream.range(0, Ar.rows).parallel().forEach(i -> {
+            int aRow = Ar.offset + i * Ar.rowStride;
+            int cRow = i * n;
+            for (int k = 0; k < kDim; k++) {
+                double a = Ar.data[aRow + k];
+                int bRow = Br.offset + k * Br.rowStride;
+                for (int j = 0; j < n; j++) {
+                    C.data[cRow + j] += a * Br.data[bRow + j];
+                }
+            }
+        });
+
+        return C;
+    }
 }
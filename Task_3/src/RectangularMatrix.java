@@ -0,0 +1,170 @@
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+/**
+ * Parallel kernels for strongly rectangular products and for
+ * matrix-vector products (GEMV).
+ *
+ * ForkJoinMatrix splits C recursively, which suits products whose three
+ * dimensions are of the same order. In a skewed product one dimension
+ * dominates, so each path below splits only that one, into one contiguous
+ * part per thread:
+ *  - tall-skinny (m >> k, n): ranges of rows of A and C. B is small and
+ *    shared by every part.
+ *  - wide (n >> m, k): ranges of columns of B and C. A is shared.
+ *  - short-wide (k >> m, n), e.g. a short-wide A times a tall-skinny B:
+ *    ranges of the shared dimension. Every part computes a full m x n
+ *    partial product into its own buffer, then the partials are summed in
+ *    parallel by rows of C. The summation order is fixed, so the result
+ *    does not depend on scheduling.
+ * Each part runs PackedGemm with this host's blocks. multiply(A, B, threads)
+ * picks the path from the largest dimension.
+ *
+ * GEMV reads every element of A once, so it is bound by memory bandwidth.
+ * It splits the rows of A, or the columns (with one partial y per part)
+ * when A has too few rows to give every thread a share.
+ */
+public class RectangularMatrix {
+
+    // Ratio of the largest dimension to the others from which a product counts as skewed
+    public static final int SKEW = 8;
+
+    // Smallest share of rows (GEMV) per thread
+    private static final int MIN_ROWS = 64;
+
+    // Multiplication along the largest dimension of the product
+    public static DenseMatrix multiply(DenseMatrix A, DenseMatrix B, int threads) {
+        int m = A.rows, k = A.cols, n = B.cols;
+        if (k > m && k > n) {
+            return multiplyShortWide(A, B, threads);
+        }
+        return n > m ? multiplyWide(A, B, threads) : multiplyTallSkinny(A, B, threads);
+    }
+
+    public static double[][] multiply(double[][] A, double[][] B, int threads) {
+        DenseMatrix.checkMultiply(A, B);
+        return multiply(DenseMatrix.of(A), DenseMatrix.of(B), threads).toArray();
+    }
+
+    // Splits the rows of A and C
+    public static DenseMatrix multiplyTallSkinny(DenseMatrix A, DenseMatrix B, int threads) {
+        DenseMatrix.checkMultiply(A, B);
+        TuningProfile tuned = TuningProfile.current();
+        int m = A.rows, k = A.cols, n = B.cols;
+        DenseMatrix C = new DenseMatrix(m, n);
+
+        int chunk = chunk(m, threads, PackedGemm.MR);
+        forEachPart(parts(m, chunk), threads, p -> {
+            int i0 = p * chunk, rows = Math.min(chunk, m - i0);
+            PackedGemm.multiplyInto(A.view(i0, 0, rows, k), B, C.view(i0, 0, rows, n),
+                    tuned.mc, tuned.kc, tuned.nc);
+        });
+        return C;
+    }
+
+    // Splits the columns of B and C
+    public static DenseMatrix multiplyWide(DenseMatrix A, DenseMatrix B, int threads) {
+        DenseMatrix.checkMultiply(A, B);
+        TuningProfile tuned = TuningProfile.current();
+        int m = A.rows, k = A.cols, n = B.cols;
+        DenseMatrix C = new DenseMatrix(m, n);
+
+        int chunk = chunk(n, threads, PackedGemm.NR);
+        forEachPart(parts(n, chunk), threads, p -> {
+            int j0 = p * chunk, cols = Math.min(chunk, n - j0);
+            PackedGemm.multiplyInto(A, B.view(0, j0, k, cols), C.view(0, j0, m, cols),
+                    tuned.mc, tuned.kc, tuned.nc);
+        });
+        return C;
+    }
+
+    // Splits the shared dimension, then sums the partial products
+    public static DenseMatrix multiplyShortWide(DenseMatrix A, DenseMatrix B, int threads) {
+        DenseMatrix.checkMultiply(A, B);
+        TuningProfile tuned = TuningProfile.current();
+        int m = A.rows, k = A.cols, n = B.cols;
+
+        // Whole kc panels per part, so splitting adds no short panels
+        int chunk = chunk(k, threads, tuned.kc);
+        int parts = parts(k, chunk);
+
+        // One m x n buffer per part, the first one becomes C
+        DenseMatrix[] partials = new DenseMatrix[parts];
+        forEachPart(parts, threads, p -> {
+            int k0 = p * chunk, depth = Math.min(chunk, k - k0);
+            partials[p] = new DenseMatrix(m, n);
+            PackedGemm.multiplyInto(A.view(0, k0, m, depth), B.view(k0, 0, depth, n), partials[p],
+                    tuned.mc, tuned.kc, tuned.nc);
+        });
+        DenseMatrix C = parts == 0 ? new DenseMatrix(m, n) : partials[0];
+
+        // Parallel reduction: each part sums every partial over its own rows of C
+        int rows = chunk(m, threads, 1);
+        forEachPart(parts > 1 ? parts(m, rows) : 0, threads, p -> {
+            int from = p * rows * n, to = Math.min(m, (p + 1) * rows) * n;
+            for (int q = 1; q < parts; q++) {
+                double[] src = partials[q].data;
+                for (int idx = from; idx < to; idx++) {
+                    C.data[idx] += src[idx];
+                }
+            }
+        });
+        return C;
+    }
+
+    // GEMV split by rows, or by columns when there are too few rows
+    public static double[] multiplyVector(DenseMatrix A, double[] x, int threads) {
+        DenseMatrix.checkMultiply(A, x);
+        int m = A.rows, k = A.cols;
+        double[] y = new double[m];
+
+        if (m >= threads * MIN_ROWS || k < m) {
+            // Multiples of 4 rows keep the row-major kernel on its 4-row path
+            int chunk = chunk(m, threads, 4);
+            forEachPart(parts(m, chunk), threads, p -> {
+                int i0 = p * chunk;
+                OptimizedMatrix.multiplyVectorInto(A, x, y, i0, Math.min(m, i0 + chunk), 0, k);
+            });
+            return y;
+        }
+
+        int chunk = chunk(k, threads, 8);
+        int parts = parts(k, chunk);
+        double[][] partials = new double[parts][];
+        forEachPart(parts, threads, p -> {
+            int k0 = p * chunk;
+            partials[p] = p == 0 ? y : new double[m];
+            OptimizedMatrix.multiplyVectorInto(A, x, partials[p], 0, m, k0, Math.min(k, k0 + chunk));
+        });
+        for (int q = 1; q < parts; q++) {
+            for (int i = 0; i < m; i++) {
+                y[i] += partials[q][i];
+            }
+        }
+        return y;
+    }
+
+    public static double[] multiplyVector(double[][] A, double[] x, int threads) {
+        if (A.length == 0) return new double[0];
+        return multiplyVector(DenseMatrix.of(A), x, threads);
+    }
+
+    // Range length that splits n into at most threads parts, rounded up to a multiple of align
+    private static int chunk(int n, int threads, int align) {
+        int chunk = (int) Math.ceil(n * 1.0 / Math.max(1, threads));
+        return Math.max(align, (chunk + align - 1) / align * align);
+    }
+
+    private static int parts(int n, int chunk) {
+        return (n + chunk - 1) / chunk;
+    }
+
+    // Runs every part on the shared pool of this size, or inline when there is only one
+    private static void forEachPart(int parts, int threads, IntConsumer part) {
+        if (parts <= 1) {
+            if (parts == 1) part.accept(0);
+            return;
+        }
+        ForkJoinMatrix.pool(threads).submit(() -> IntStream.range(0, parts).parallel().forEach(part)).join();
+    }
+}
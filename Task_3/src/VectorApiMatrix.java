@@ -0,0 +1,242 @@
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorShape;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Real SIMD multiplication using the Java Vector API (jdk.incubator.vector).
+ *
+ * Vectorizes across j: for a row i of C, a chunk of 4 vectors (4 * lanes
+ * columns) is kept in registers while k runs over a block of A's columns;
+ * each step broadcasts A[i][k] and does one FMA per vector with a
+ * contiguous slice of row k of B.
+ *
+ * The float kernel is the same loop with FloatVector, so each vector
+ * holds twice as many lanes. The mixed kernel loads half a vector of
+ * floats from B, widens it to doubles and accumulates in double.
+ *
+ * This class must only be touched when the incubator module is present;
+ * VectorizedMatrix.multiplySimd checks that and otherwise uses scalar code.
+ */
+public class VectorApiMatrix {
+
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Float> FLOATS = FloatVector.SPECIES_PREFERRED;
+
+    // Floats that widen to one vector of doubles (half the preferred width)
+    private static final VectorSpecies<Float> HALF_FLOATS =
+            FloatVector.SPECIES_PREFERRED.withShape(VectorShape.forBitSize(SPECIES.vectorBitSize() / 2));
+
+    // Columns of A (rows of B) processed per pass, so the B block stays in cache
+    private static final int K_BLOCK = 256;
+
+    // Number of lanes per vector on this host (2 = SSE, 4 = AVX2, 8 = AVX-512)
+    public static int lanes() {
+        return SPECIES.length();
+    }
+
+    public static DenseMatrix multiply(DenseMatrix A, DenseMatrix B) {
+        DenseMatrix.checkMultiply(A, B);
+        A = A.rowMajor();
+        B = B.rowMajor();
+
+        int m = A.rows, n = B.cols, kDim = A.cols;
+        DenseMatrix C = new DenseMatrix(m, n);
+        double[] a = A.data, b = B.data, c = C.data;
+
+        int L = SPECIES.length();
+        int wide = 4 * L;
+        int jWide = n - n % wide;
+        int jVec = SPECIES.loopBound(n);
+
+        for (int kk = 0; kk < kDim; kk += K_BLOCK) {
+            int kMax = Math.min(kk + K_BLOCK, kDim);
+
+            for (int i = 0; i < m; i++) {
+                int aRow = A.offset + i * A.rowStride;
+                int cRow = i * n;
+                int j = 0;
+
+                // Main loop: 4 independent accumulators hide the FMA latency
+                for (; j < jWide; j += wide) {
+                    DoubleVector c0 = DoubleVector.fromArray(SPECIES, c, cRow + j);
+                    DoubleVector c1 = DoubleVector.fromArray(SPECIES, c, cRow + j + L);
+                    DoubleVector c2 = DoubleVector.fromArray(SPECIES, c, cRow + j + 2 * L);
+                    DoubleVector c3 = DoubleVector.fromArray(SPECIES, c, cRow + j + 3 * L);
+
+                    for (int k = kk; k < kMax; k++) {
+                        DoubleVector av = DoubleVector.broadcast(SPECIES, a[aRow + k]);
+                        int bRow = B.offset + k * B.rowStride + j;
+                        c0 = av.lanewise(VectorOperators.FMA, DoubleVector.fromArray(SPECIES, b, bRow), c0);
+                        c1 = av.lanewise(VectorOperators.FMA, DoubleVector.fromArray(SPECIES, b, bRow + L), c1);
+                        c2 = av.lanewise(VectorOperators.FMA, DoubleVector.fromArray(SPECIES, b, bRow + 2 * L), c2);
+                        c3 = av.lanewise(VectorOperators.FMA, DoubleVector.fromArray(SPECIES, b, bRow + 3 * L), c3);
+                    }
+
+                    c0.intoArray(c, cRow + j);
+                    c1.intoArray(c, cRow + j + L);
+                    c2.intoArray(c, cRow + j + 2 * L);
+                    c3.intoArray(c, cRow + j + 3 * L);
+                }
+
+                // Remaining full vectors
+                for (; j < jVec; j += L) {
+                    DoubleVector acc = DoubleVector.fromArray(SPECIES, c, cRow + j);
+                    for (int k = kk; k < kMax; k++) {
+                        DoubleVector av = DoubleVector.broadcast(SPECIES, a[aRow + k]);
+                        DoubleVector bv = DoubleVector.fromArray(SPECIES, b, B.offset + k * B.rowStride + j);
+                        acc = av.lanewise(VectorOperators.FMA, bv, acc);
+                    }
+                    acc.intoArray(c, cRow + j);
+                }
+
+                // Scalar tail when n is not a multiple of the lane count
+                for (; j < n; j++) {
+                    double sum = c[cRow + j];
+                    for (int k = kk; k < kMax; k++) {
+                        sum += a[aRow + k] * b[B.offset + k * B.rowStride + j];
+                    }
+                    c[cRow + j] = sum;
+                }
+            }
+        }
+
+        return C;
+    }
+
+    // Single-precision version: operands, sums and result in float
+    public static FloatMatrix multiply(FloatMatrix A, FloatMatrix B) {
+        FloatMatrix.checkMultiply(A, B);
+
+        int m = A.rows, n = B.cols, kDim = A.cols;
+        FloatMatrix C = new FloatMatrix(m, n);
+        float[] a = A.data, b = B.data, c = C.data;
+
+        int L = FLOATS.length();
+        int wide = 4 * L;
+        int jWide = n - n % wide;
+        int jVec = FLOATS.loopBound(n);
+
+        for (int kk = 0; kk < kDim; kk += K_BLOCK) {
+            int kMax = Math.min(kk + K_BLOCK, kDim);
+
+            for (int i = 0; i < m; i++) {
+                int aRow = i * kDim;
+                int cRow = i * n;
+                int j = 0;
+
+                for (; j < jWide; j += wide) {
+                    FloatVector c0 = FloatVector.fromArray(FLOATS, c, cRow + j);
+                    FloatVector c1 = FloatVector.fromArray(FLOATS, c, cRow + j + L);
+                    FloatVector c2 = FloatVector.fromArray(FLOATS, c, cRow + j + 2 * L);
+                    FloatVector c3 = FloatVector.fromArray(FLOATS, c, cRow + j + 3 * L);
+
+                    for (int k = kk; k < kMax; k++) {
+                        FloatVector av = FloatVector.broadcast(FLOATS, a[aRow + k]);
+                        int bRow = k * n + j;
+                        c0 = av.lanewise(VectorOperators.FMA, FloatVector.fromArray(FLOATS, b, bRow), c0);
+                        c1 = av.lanewise(VectorOperators.FMA, FloatVector.fromArray(FLOATS, b, bRow + L), c1);
+                        c2 = av.lanewise(VectorOperators.FMA, FloatVector.fromArray(FLOATS, b, bRow + 2 * L), c2);
+                        c3 = av.lanewise(VectorOperators.FMA, FloatVector.fromArray(FLOATS, b, bRow + 3 * L), c3);
+                    }
+
+                    c0.intoArray(c, cRow + j);
+                    c1.intoArray(c, cRow + j + L);
+                    c2.intoArray(c, cRow + j + 2 * L);
+                    c3.intoArray(c, cRow + j + 3 * L);
+                }
+
+                for (; j < jVec; j += L) {
+                    FloatVector acc = FloatVector.fromArray(FLOATS, c, cRow + j);
+                    for (int k = kk; k < kMax; k++) {
+                        FloatVector av = FloatVector.broadcast(FLOATS, a[aRow + k]);
+                        acc = av.lanewise(VectorOperators.FMA, FloatVector.fromArray(FLOATS, b, k * n + j), acc);
+                    }
+                    acc.intoArray(c, cRow + j);
+                }
+
+                for (; j < n; j++) {
+                    float sum = c[cRow + j];
+                    for (int k = kk; k < kMax; k++) {
+                        sum += a[aRow + k] * b[k * n + j];
+                    }
+                    c[cRow + j] = sum;
+                }
+            }
+        }
+
+        return C;
+    }
+
+    // Mixed precision: float operands widened on load, double sums and result
+    public static DenseMatrix multiplyMixed(FloatMatrix A, FloatMatrix B) {
+        FloatMatrix.checkMultiply(A, B);
+
+        int m = A.rows, n = B.cols, kDim = A.cols;
+        DenseMatrix C = new DenseMatrix(m, n);
+        float[] a = A.data, b = B.data;
+        double[] c = C.data;
+
+        int L = SPECIES.length();
+        int wide = 4 * L;
+        int jWide = n - n % wide;
+        int jVec = SPECIES.loopBound(n);
+
+        for (int kk = 0; kk < kDim; kk += K_BLOCK) {
+            int kMax = Math.min(kk + K_BLOCK, kDim);
+
+            for (int i = 0; i < m; i++) {
+                int aRow = i * kDim;
+                int cRow = i * n;
+                int j = 0;
+
+                for (; j < jWide; j += wide) {
+                    DoubleVector c0 = DoubleVector.fromArray(SPECIES, c, cRow + j);
+                    DoubleVector c1 = DoubleVector.fromArray(SPECIES, c, cRow + j + L);
+                    DoubleVector c2 = DoubleVector.fromArray(SPECIES, c, cRow + j + 2 * L);
+                    DoubleVector c3 = DoubleVector.fromArray(SPECIES, c, cRow + j + 3 * L);
+
+                    for (int k = kk; k < kMax; k++) {
+                        DoubleVector av = DoubleVector.broadcast(SPECIES, a[aRow + k]);
+                        int bRow = k * n + j;
+                        c0 = av.lanewise(VectorOperators.FMA, widen(b, bRow), c0);
+                        c1 = av.lanewise(VectorOperators.FMA, widen(b, bRow + L), c1);
+                        c2 = av.lanewise(VectorOperators.FMA, widen(b, bRow + 2 * L), c2);
+                        c3 = av.lanewise(VectorOperators.FMA, widen(b, bRow + 3 * L), c3);
+                    }
+
+                    c0.intoArray(c, cRow + j);
+                    c1.intoArray(c, cRow + j + L);
+                    c2.intoArray(c, cRow + j + 2 * L);
+                    c3.intoArray(c, cRow + j + 3 * L);
+                }
+
+                for (; j < jVec; j += L) {
+                    DoubleVector acc = DoubleVector.fromArray(SPECIES, c, cRow + j);
+                    for (int k = kk; k < kMax; k++) {
+                        DoubleVector av = DoubleVector.broadcast(SPECIES, a[aRow + k]);
+                        acc = av.lanewise(VectorOperators.FMA, widen(b, k * n + j), acc);
+                    }
+                    acc.intoArray(c, cRow + j);
+                }
+
+                for (; j < n; j++) {
+                    double sum = c[cRow + j];
+                    for (int k = kk; k < kMax; k++) {
+                        sum += (double) a[aRow + k] * b[k * n + j];
+                    }
+                    c[cRow + j] = sum;
+                }
+            }
+        }
+
+        return C;
+    }
+
+    // One vector of doubles from the floats at b[offset ..]
+    private static DoubleVector widen(float[] b, int offset) {
+        return (DoubleVector) FloatVector.fromArray(HALF_FLOATS, b, offset)
+                .convertShape(VectorOperators.F2D, SPECIES, 0);
+    }
+}
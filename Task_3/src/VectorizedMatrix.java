@@ -3,27 +3,28 @@ public class VectorizedMatrix {
     // Manual SIMD-style vectorization (processes 4 elements per loop)
     public static double[][] multiply(double[][] A, double[][] B) {
 
-        int n = A.length;
-        double[][] C = new double[n][n];
+        DenseMatrix.checkMultiply(A, B);
+        int m = A.length, kDim = B.length, n = DenseMatrix.cols(B);
+        double[][] C = new double[m][n];
 
         int block = 4;  // SIMD block size
 
-        for (int i = 0; i < n; i++) {
+        for (int i = 0; i < m; i++) {
             for (int j = 0; j < n; j++) {
 
                 double sum = 0;
                 int k = 0;
 
                 // Vectorized loop processing 4 values per iteration
-                for (; k <= n - block; k += block) {
+                for (; k <= kDim - block; k += block) {
                     sum += A[i][k]     * B[k][j];
                     sum += A[i][k + 1] * B[k + 1][j];
                     sum += A[i][k + 2] * B[k + 2][j];
                     sum += A[i][k + 3] * B[k + 3][j];
                 }
 
-                // Remaining values when n is not a multiple of 4
-                for (; k < n; k++) {
+                // Remaining values when k is not a multiple of 4
+                for (; k < kDim; k++) {
                     sum += A[i][k] * B[k][j];
                 }
 
@@ -33,4 +34,77 @@ public class VectorizedMatrix {
 
         return C;
     }
+
+    // Flat version: unrolls the j loop by 4 over a contiguous row of B,
+    // so the four lanes are adjacent in memory
+    public static DenseMatrix multiply(DenseMatrix A, DenseMatrix B) {
+
+        DenseMatrix.checkMultiply(A, B);
+        A = A.rowMajor();
+        B = B.rowMajor();
+
+        int m = A.rows, n = B.cols, kDim = A.cols;
+        DenseMatrix C = new DenseMatrix(m, n);
+        double[] a = A.data, b = B.data, c = C.data;
+
+        int block = 4;
+
+        for (int i = 0; i < m; i++) {
+            int aRow = A.offset + i * A.rowStride;
+            int cRow = i * n;
+            for (int k = 0; k < kDim; k++) {
+                double aik = a[aRow + k];
+                int bRow = B.offset + k * B.rowStride;
+                int j = 0;
+
+                for (; j <= n - block; j += block) {
+                    c[cRow + j]     += aik * b[bRow + j];
+                    c[cRow + j + 1] += aik * b[bRow + j + 1];
+                    c[cRow + j + 2] += aik * b[bRow + j + 2];
+                    c[cRow + j + 3] += aik * b[bRow + j + 3];
+                }
+
+                for (; j < n; j++) {
+                    c[cRow + j] += aik * b[bRow + j];
+                }
+            }
+        }
+
+        return C;
+    }
+
+    // True when the JVM was started with --add-modules jdk.incubator.vector
+    public static final boolean VECTOR_API_AVAILABLE =
+            ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent();
+
+    // Real SIMD multiplication through the Java Vector API when available,
+    // otherwise the scalar flat kernel above
+    public static DenseMatrix multiplySimd(DenseMatrix A, DenseMatrix B) {
+        if (VECTOR_API_AVAILABLE) {
+            return VectorApiMatrix.multiply(A, B);
+        }
+        return multiply(A, B);
+    }
+
+    // Single-precision SIMD multiplication (twice the lanes of multiplySimd),
+    // otherwise the scalar float tiled kernel
+    public static FloatMatrix multiplySimd(FloatMatrix A, FloatMatrix B) {
+        if (VECTOR_API_AVAILABLE) {
+            return VectorApiMatrix.multiply(A, B);
+        }
+        return OptimizedMatrix.multiplyTiled(A, B);
+    }
+
+    // Float operands with double sums, otherwise the scalar mixed tiled kernel
+    public static DenseMatrix multiplySimdMixed(FloatMatrix A, FloatMatrix B) {
+        if (VECTOR_API_AVAILABLE) {
+            return VectorApiMatrix.multiplyMixed(A, B);
+        }
+        return OptimizedMatrix.multiplyTiledMixed(A, B);
+    }
+
+    // Lanes per vector used by multiplySimd (1 when running the scalar fallback)
+    public static int simdLanes() {
+        return VECTOR_API_AVAILABLE ? VectorApiMatrix.lanes() : 1;
+    }
 }
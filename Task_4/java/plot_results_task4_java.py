@@ -10,9 +10,8 @@ def plot_results():
     """
     Reads the benchmark CSV and generates plots for Time and Memory usage.
     """
-    sizes = []
-    times = []
-    memories = []
+    # One series per distribution scheme: {method: (sizes, times, memories)}
+    series = {}
 
     # Check if data file exists
     # Note: The Java program saves the CSV in the 'results' folder relative to where it ran.
@@ -30,13 +29,20 @@ def plot_results():
         with open(target_csv, 'r') as f:
             reader = csv.reader(f)
             for row in reader:
-                # Expecting format: Size, Time, Memory
+                # Expecting format: Size, Time, Method, Allocated MB, ... (RunMetrics columns)
+                # Older files: Size, Time, Memory[, Method]
                 if row and len(row) >= 3:
+                    if len(row) > 4:
+                        method, memory = row[2], row[3]
+                    else:
+                        method = row[3] if len(row) >= 4 else 'row_tasks'
+                        memory = row[2]
+                    sizes, times, memories = series.setdefault(method, ([], [], []))
                     sizes.append(int(row[0]))
                     times.append(float(row[1]))
-                    memories.append(float(row[2]))
+                    memories.append(float(memory))
 
-        if not sizes:
+        if not series:
             print(" No data found in CSV.")
             return
 
@@ -44,18 +50,22 @@ def plot_results():
         fig, (ax1, ax2) = plt.subplots(1, 2, figsize=(14, 6))
 
         # Plot 1: Scalability (Time)
-        ax1.plot(sizes, times, marker='o', linestyle='-', color='#1f77b4', linewidth=2)
+        for method, (sizes, times, _) in series.items():
+            ax1.plot(sizes, times, marker='o', linestyle='-', linewidth=2, label=method)
         ax1.set_title('Scalability Analysis (Time vs Size)', fontsize=12)
         ax1.set_xlabel('Matrix Dimension (NxN)')
         ax1.set_ylabel('Execution Time (ms)')
         ax1.grid(True, linestyle='--', alpha=0.7)
+        ax1.legend()
 
         # Plot 2: Resource Utilization (Memory)
-        ax2.plot(sizes, memories, marker='s', linestyle='-', color='#ff7f0e', linewidth=2)
+        for method, (sizes, _, memories) in series.items():
+            ax2.plot(sizes, memories, marker='s', linestyle='-', linewidth=2, label=method)
         ax2.set_title('Resource Utilization (Memory vs Size)', fontsize=12)
         ax2.set_xlabel('Matrix Dimension (NxN)')
-        ax2.set_ylabel('Memory Usage (MB)')
+        ax2.set_ylabel('Memory Allocated (MB)')
         ax2.grid(True, linestyle='--', alpha=0.7)
+        ax2.legend()
 
         plt.suptitle('Distributed Matrix Multiplication Report', fontsize=16)
         plt.tight_layout()
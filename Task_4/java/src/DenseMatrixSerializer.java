@@ -0,0 +1,42 @@
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+import com.hazelcast.nio.serialization.StreamSerializer;
+import java.io.IOException;
+
+/**
+ * Hazelcast serializer for DenseMatrix.
+ *
+ * Writes the shape followed by the elements as one double array, instead
+ * of going through java.io.Serializable (class descriptors, reflection and
+ * an ObjectInputStream per message). Views are compacted first, so only
+ * their own elements are sent and not the whole backing array.
+ */
+public class DenseMatrixSerializer implements StreamSerializer<DenseMatrix> {
+
+    public static final int TYPE_ID = 1001;
+
+    @Override
+    public int getTypeId() {
+        return TYPE_ID;
+    }
+
+    @Override
+    public void write(ObjectDataOutput out, DenseMatrix M) throws IOException {
+        out.writeInt(M.rows);
+        out.writeInt(M.cols);
+        out.writeDoubleArray(isCompact(M) ? M.data : M.copy().data);
+    }
+
+    @Override
+    public DenseMatrix read(ObjectDataInput in) throws IOException {
+        int rows = in.readInt();
+        int cols = in.readInt();
+        return new DenseMatrix(rows, cols, in.readDoubleArray());
+    }
+
+    // True when the backing array holds exactly this matrix in row-major order
+    private static boolean isCompact(DenseMatrix M) {
+        return M.offset == 0 && M.colStride == 1 && M.rowStride == M.cols
+                && M.data.length == M.rows * M.cols;
+    }
+}
@@ -1,9 +1,11 @@
-import com.hazelcast.core.Hazelcast;
+import com.hazelcast.core.ExecutionCallback;
 import com.hazelcast.core.HazelcastInstance;
 import com.hazelcast.core.IExecutorService;
-import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.Future;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicReference;
 import java.io.File;
 import java.io.FileWriter;
 import java.io.PrintWriter;
@@ -11,72 +13,66 @@ import java.io.IOException;
 
 /**
  * Main driver class for Distributed Matrix Multiplication using Hazelcast.
- * It measures both execution time (Scalability) and memory usage (Resource Utilization).
+ * It measures execution time (Scalability) and, through RunMetrics, bytes
+ * allocated, GC activity and peak memory (Resource Utilization).
  */
 public class DistributedMatrixMultiplication {
 
     public static void main(String[] args) {
+        // Optional arguments: number of embedded members, SUMMA tile size, local kernel of row-range tasks
+        int members = args.length > 0 ? Integer.parseInt(args[0]) : 1;
+        int tileSize = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+        LocalKernel kernel = LocalKernel.parse(args.length > 2 ? args[2] : null);
+
         // 1. Ensure the output directory exists
         new File("results").mkdirs();
 
-        // 2. Initialize Hazelcast Cluster Node
-        HazelcastInstance hazelcastInstance = Hazelcast.newHazelcastInstance();
+        // 2. Initialize the Hazelcast cluster (the first member acts as driver)
+        List<HazelcastInstance> cluster = LocalCluster.start(members);
+        HazelcastInstance hazelcastInstance = cluster.get(0);
         IExecutorService executorService = hazelcastInstance.getExecutorService("matrixExecutor");
 
+        // Engine that picks the cluster or a local kernel per product, and says which
+        MatrixEngine engine = RowRangeJob.engine(hazelcastInstance, executorService);
+        engine.log = decision -> System.out.println(" -> [engine] " + decision);
+
         // 3. Define matrix dimensions to test
         // Sizes are kept moderate to ensure stability on a single machine simulation
         int[] sizes = {200, 400, 600}; 
 
         System.out.println("=== Starting Distributed Matrix Multiplication (Benchmarks) ===");
+        System.out.println("Members: " + members + " | SUMMA tile size: " + tileSize + " | Local kernel: " + kernel);
 
         // Clear previous results to avoid duplicates in the report
         clearCsv("results/performance.csv");
 
         for (int size : sizes) {
             System.out.println("\nProcessing matrix size: " + size + "x" + size + "...");
-            
-            try {
-                // Garbage collection to get a clean memory reading
-                System.gc();
-                long memoryBefore = getUsedMemory();
-
-                // Generate random matrices
-                double[][] matrixA = MatrixUtils.generateRandomMatrix(size, size);
-                double[][] matrixB = MatrixUtils.generateRandomMatrix(size, size);
-                double[][] resultC = new double[size][size];
-
-                long startTime = System.currentTimeMillis();
-
-                // 4. Distribute Tasks: Row-wise partitioning
-                List<Future<double[]>> futures = new ArrayList<>();
-                
-                for (int i = 0; i < size; i++) {
-                    // Each task computes one row of the resulting matrix
-                    RowBlockTask task = new RowBlockTask(matrixA[i], matrixB);
-                    futures.add(executorService.submit(task));
-                }
 
-                // 5. Aggregate Results (Reduce Phase)
-                for (int i = 0; i < size; i++) {
-                    resultC[i] = futures.get(i).get();
-                }
+            // Generate random matrices
+            double[][] matrixA = MatrixUtils.generateRandomMatrix(size, size);
+            double[][] matrixB = MatrixUtils.generateRandomMatrix(size, size);
+
+            // 4. Row-wise partitioning: one task per row of C
+            benchmark("row_tasks", size, () -> multiplyRowTasks(executorService, matrixA, matrixB));
 
-                long endTime = System.currentTimeMillis();
-                long duration = endTime - startTime;
-                
-                // Measure memory after execution
-                long memoryAfter = getUsedMemory();
-                long memoryUsed = Math.max(0, memoryAfter - memoryBefore);
-
-                System.out.println(" -> Done. Time: " + duration + " ms | RAM Used: " + memoryUsed + " MB");
-                
-                // 6. Save metrics to CSV (Size, Time, Memory)
-                saveResult("results/performance.csv", size, duration, memoryUsed);
-
-            } catch (Exception e) {
-                System.err.println("Error processing size " + size + ": " + e.getMessage());
-                e.printStackTrace();
-            }
+            // 5. Row ranges: B published once, tasks only carry references.
+            //    Batch size planned from the cluster, or resized from measured latency
+            benchmark("row_ranges", size, () -> multiplyRowRanges(hazelcastInstance, executorService,
+                    DenseMatrix.of(matrixA), DenseMatrix.of(matrixB), kernel));
+            benchmark("row_ranges_adaptive", size, () -> RowRangeJob.multiplyAdaptive(hazelcastInstance,
+                    executorService, DenseMatrix.of(matrixA), DenseMatrix.of(matrixB)));
+
+            // 6. Same plan, but finished blocks are streamed to a file as they arrive
+            benchmark("row_ranges_stream", size, () -> streamToFile(hazelcastInstance, executorService,
+                    DenseMatrix.of(matrixA), DenseMatrix.of(matrixB)));
+
+            // 7. 2D block partitioning (SUMMA): one task per member
+            benchmark("summa", size, () -> SummaMultiplication.multiply(hazelcastInstance, executorService,
+                    DenseMatrix.of(matrixA), DenseMatrix.of(matrixB), tileSize));
+
+            // 8. Whatever MatrixEngine picks for this size and cluster
+            benchmark("engine", size, () -> engine.multiply(DenseMatrix.of(matrixA), DenseMatrix.of(matrixB)));
         }
         
         System.out.println("\n=== All tests finished successfully. ===");
@@ -86,22 +82,119 @@ public class DistributedMatrixMultiplication {
         System.exit(0);
     }
 
-    // --- Helper Methods ---
-    
     /**
-     * Calculates the currently used heap memory in Megabytes (MB).
+     * Original scheme: each task computes one row of C and carries B with it.
      */
-    private static long getUsedMemory() {
-        Runtime runtime = Runtime.getRuntime();
-        return (runtime.totalMemory() - runtime.freeMemory()) / (1024 * 1024);
+    private static double[][] multiplyRowTasks(IExecutorService executorService,
+                                               double[][] matrixA, double[][] matrixB) throws Exception {
+        int size = matrixA.length;
+        double[][] resultC = new double[size][];
+
+        // Flatten B once so every task shares one contiguous copy
+        DenseMatrix flatB = DenseMatrix.of(matrixB);
+
+        // Rows are stored by the callbacks in completion order; the driver only waits for the count
+        CountDownLatch remaining = new CountDownLatch(size);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+
+        // Distribute Tasks: Row-wise partitioning
+        for (int i = 0; i < size; i++) {
+            // Each task computes one row of the resulting matrix
+            RowBlockTask task = new RowBlockTask(matrixA[i], flatB);
+            int row = i;
+            executorService.submit(task, new ExecutionCallback<double[]>() {
+                @Override
+                public void onResponse(double[] response) {
+                    resultC[row] = response;
+                    remaining.countDown();
+                }
+
+                @Override
+                public void onFailure(Throwable t) {
+                    failure.compareAndSet(null, t);
+                    remaining.countDown();
+                }
+            });
+        }
+
+        // Aggregate Results (Reduce Phase)
+        remaining.await();
+        if (failure.get() != null) {
+            throw new ExecutionException(failure.get());
+        }
+        return resultC;
     }
 
+    /**
+     * Row ranges with the given local kernel; prints the kernels the members
+     * ran and the GFLOP/s they reported.
+     */
+    private static DenseMatrix multiplyRowRanges(HazelcastInstance hazelcastInstance, IExecutorService executorService,
+                                                 DenseMatrix matrixA, DenseMatrix matrixB, LocalKernel kernel)
+            throws Exception {
+        RowRangeJob.Stats stats = new RowRangeJob.Stats();
+        DenseMatrix resultC = RowRangeJob.multiply(hazelcastInstance, executorService, matrixA, matrixB, kernel, stats);
+
+        System.out.printf(" -> [row_ranges] Kernels: %s | %.2f GFLOP/s per task%n", stats.kernels, stats.gflops());
+        return resultC;
+    }
+
+    /**
+     * Streams the row blocks of C into a memory-mapped file as they finish,
+     * instead of assembling C on the heap, and reports when the first block
+     * arrived.
+     */
+    private static Void streamToFile(HazelcastInstance hazelcastInstance, IExecutorService executorService,
+                                     DenseMatrix matrixA, DenseMatrix matrixB) throws Exception {
+        File file = File.createTempFile("matrix-c-", ".bin");
+        file.deleteOnExit();
+        OffHeapMatrix resultC = OffHeapMatrix.map(file.getPath(), matrixA.rows, matrixB.cols);
+
+        long startTime = System.nanoTime();
+        long[] firstBlock = {-1};
+        RowRangeJob.stream(hazelcastInstance, executorService, matrixA, matrixB, block -> {
+            if (firstBlock[0] < 0) firstBlock[0] = System.nanoTime() - startTime;
+            resultC.writeBlock(block.fromRow, 0, block.rows);
+        });
+
+        System.out.println(" -> [row_ranges_stream] First block after " + firstBlock[0] / 1_000_000 + " ms");
+        return null;
+    }
+
+    /**
+     * Runs one scheme, measuring time and memory, and saves the metrics.
+     */
+    private static void benchmark(String method, int size, Callable<?> job) {
+        try {
+            // Allocations and GC of every thread in this JVM, including the embedded members
+            RunMetrics metrics = RunMetrics.start();
+
+            long startTime = System.currentTimeMillis();
+            job.call();
+            long endTime = System.currentTimeMillis();
+            long duration = endTime - startTime;
+
+            metrics.stop();
+
+            System.out.println(" -> [" + method + "] Done. Time: " + duration + " ms | " + metrics);
+
+            // Save metrics to CSV (Size, Time, Method, RunMetrics columns)
+            saveResult("results/performance.csv", size, duration, method, metrics);
+
+        } catch (Exception e) {
+            System.err.println("Error processing " + method + " for size " + size + ": " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+
+    // --- Helper Methods ---
+    
     /**
      * Appends a benchmark record to the CSV file.
      */
-    private static void saveResult(String filename, int size, long time, long memory) {
+    private static void saveResult(String filename, int size, long time, String method, RunMetrics metrics) {
         try (PrintWriter writer = new PrintWriter(new FileWriter(filename, true))) {
-            writer.println(size + "," + time + "," + memory);
+            writer.println(size + "," + time + "," + method + "," + metrics.toCsv());
         } catch (IOException e) {
             e.printStackTrace();
         }
@@ -0,0 +1,144 @@
+import com.hazelcast.core.Hazelcast;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.IExecutorService;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Shows that a row-range job survives members leaving mid-run.
+ *
+ * Starts several embedded members, runs one RowRangeJob and terminates two
+ * of the worker members (without a graceful shutdown, like a crash) after
+ * a third and two thirds of the blocks have come back, so both losses hit
+ * tasks that are still queued or running. The second member is only
+ * terminated once the cluster is safe again (every partition has its
+ * backup), since the maps keep one backup and cannot survive two
+ * simultaneous losses. The result is checked against a local multiply (the
+ * demo fails when an entry is off by more than 1e-9 * size) and the job
+ * statistics show how many attempts had to be resubmitted.
+ *
+ * Arguments: [members] [size] [blockRows]
+ */
+public class FaultToleranceDemo {
+
+    public static void main(String[] args) throws Exception {
+        try {
+            run(args);
+        } finally {
+            Hazelcast.shutdownAll();
+        }
+    }
+
+    private static void run(String[] args) throws Exception {
+        int members = args.length > 0 ? Integer.parseInt(args[0]) : 4;
+        int size = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+        int blockRows = args.length > 2 ? Integer.parseInt(args[2]) : 8;
+
+        if (members < 3) {
+            throw new IllegalArgumentException("Need at least 3 members (the driver and two to terminate)");
+        }
+
+        List<HazelcastInstance> cluster = LocalCluster.start(members);
+        HazelcastInstance driver = cluster.get(0);
+        IExecutorService executor = driver.getExecutorService("matrixExecutor");
+
+        Random rand = new Random(42);
+        DenseMatrix A = DenseMatrix.random(size, size, rand);
+        DenseMatrix B = DenseMatrix.random(size, size, rand);
+        DenseMatrix C = new DenseMatrix(size, size);
+
+        while (!safe(cluster)) {
+            Thread.sleep(50);
+        }
+
+        System.out.println("=== Row-range job on " + members + " members, " + size + "x" + size
+                + ", " + blockRows + " rows per task ===");
+        long start = System.currentTimeMillis();
+
+        // Terminate the last two members once a third and two thirds of the blocks are done
+        int blocks = (size + blockRows - 1) / blockRows;
+        Semaphore progress = new Semaphore(0);
+        AtomicBoolean finished = new AtomicBoolean();
+        Consumer<RowBlockResult> into = RowRangeJob.into(C);
+        Consumer<RowBlockResult> sink = new Consumer<>() {
+            int done;
+
+            @Override
+            public void accept(RowBlockResult block) {
+                into.accept(block);
+                done++;
+                if (done == blocks / 3 || done == 2 * blocks / 3) {
+                    progress.release();
+                }
+            }
+        };
+        Thread killer = new Thread(() -> {
+            try {
+                for (int i = 1; i <= 2; i++) {
+                    progress.acquire();
+                    if (finished.get()) return;
+                    // Still safe from before the job for the first member
+                    while (i > 1 && !safe(cluster)) {
+                        if (finished.get()) return;
+                        Thread.sleep(50);
+                    }
+                    HazelcastInstance victim = cluster.get(members - i);
+                    System.out.println(" -> Terminating member " + victim.getCluster().getLocalMember()
+                            + " after " + (System.currentTimeMillis() - start) + " ms");
+                    victim.getLifecycleService().terminate();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+
+        RowRangeJob.Stats stats = new RowRangeJob.Stats();
+        try {
+            killer.start();
+            RowRangeJob.stream(driver, executor, A, B, blockRows, sink, stats);
+        } finally {
+            // Let the killer stop instead of interrupting a Hazelcast call
+            finished.set(true);
+            progress.release(2);
+            killer.join();
+        }
+        long duration = System.currentTimeMillis() - start;
+
+        // Check against a local multiply
+        DenseMatrix expected = PackedGemm.multiply(A, B);
+        double maxError = 0.0;
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
+                maxError = Math.max(maxError, Math.abs(expected.get(i, j) - C.get(i, j)));
+            }
+        }
+
+        System.out.println("Time: " + duration + " ms | members left: " + driver.getCluster().getMembers().size());
+        System.out.println("Blocks: " + stats.blocks + " | retried: " + stats.retried
+                + " | speculative: " + stats.speculative + " | discarded: " + stats.discarded);
+        System.out.println("Max error vs. local multiply: " + maxError);
+
+        // A lost, duplicated or partly written block shows up as a large error
+        double tolerance = 1e-9 * size;
+        if (!(maxError <= tolerance)) {
+            System.out.println("FAILED: error " + maxError + " exceeds " + tolerance);
+            throw new IllegalStateException("Result differs from the local multiply by " + maxError);
+        }
+        System.out.println("OK: result matches the local multiply");
+    }
+
+    // True when every running member has backups for all its partitions.
+    // Asks each embedded member directly: isClusterSafe() sends operations
+    // to all members and keeps retrying one that has just been terminated.
+    private static boolean safe(List<HazelcastInstance> cluster) {
+        for (HazelcastInstance member : cluster) {
+            if (member.getLifecycleService().isRunning() && !member.getPartitionService().isLocalMemberSafe()) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
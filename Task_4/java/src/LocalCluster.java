@@ -0,0 +1,81 @@
+import com.hazelcast.config.Config;
+import com.hazelcast.config.InMemoryFormat;
+import com.hazelcast.config.JoinConfig;
+import com.hazelcast.config.NearCacheConfig;
+import com.hazelcast.config.SerializerConfig;
+import com.hazelcast.core.Hazelcast;
+import com.hazelcast.core.HazelcastInstance;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Starts Hazelcast members for local testing.
+ * All members use the same cluster name and join each other over TCP/IP on
+ * localhost, so several members can run inside one JVM (start) or in
+ * separate processes on the same machine (main).
+ */
+public class LocalCluster {
+
+    public static final String CLUSTER_NAME = "matrix-cluster";
+
+    // Member attribute with the number of cores of the member's machine
+    public static final String CORES_ATTRIBUTE = "cores";
+
+    /**
+     * Member configuration shared by the driver and every worker.
+     */
+    public static Config config() {
+        Config config = new Config();
+        config.setClusterName(CLUSTER_NAME);
+
+        // Embedded members in one JVM each report all cores of the machine
+        config.getMemberAttributeConfig().setAttribute(CORES_ATTRIBUTE,
+                String.valueOf(Runtime.getRuntime().availableProcessors()));
+
+        JoinConfig join = config.getNetworkConfig().getJoin();
+        join.getMulticastConfig().setEnabled(false);
+        join.getTcpIpConfig().setEnabled(true).addMember("127.0.0.1");
+
+        // Every member keeps a deserialized copy of each B it reads, so B
+        // crosses the network at most once per member and job
+        NearCacheConfig nearCache = new NearCacheConfig()
+                .setInMemoryFormat(InMemoryFormat.OBJECT)
+                .setCacheLocalEntries(true);
+        config.getMapConfig(RowRangeJob.B_MAP).setNearCacheConfig(nearCache);
+
+        // Matrices and tasks are written as raw arrays and ints instead of
+        // going through java.io.Serializable. Native byte order lets
+        // Hazelcast copy double[] in bulk instead of one element at a time
+        // (all members must use the same setting).
+        config.getSerializationConfig()
+                .setUseNativeByteOrder(true)
+                .setAllowUnsafe(true)
+                .addDataSerializableFactory(MatrixDataSerializableFactory.FACTORY_ID,
+                        new MatrixDataSerializableFactory())
+                .addSerializerConfig(new SerializerConfig()
+                        .setTypeClass(DenseMatrix.class)
+                        .setImplementation(new DenseMatrixSerializer()));
+
+        return config;
+    }
+
+    /**
+     * Starts the given number of embedded members in this JVM.
+     * The first member in the list is used as the driver.
+     */
+    public static List<HazelcastInstance> start(int members) {
+        List<HazelcastInstance> instances = new ArrayList<>();
+        for (int i = 0; i < members; i++) {
+            instances.add(Hazelcast.newHazelcastInstance(config()));
+        }
+        return instances;
+    }
+
+    /**
+     * Starts a single standalone worker member (run one per terminal).
+     */
+    public static void main(String[] args) {
+        HazelcastInstance member = Hazelcast.newHazelcastInstance(config());
+        System.out.println("Worker member started: " + member.getCluster().getLocalMember());
+    }
+}
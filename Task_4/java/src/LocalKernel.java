@@ -0,0 +1,60 @@
+/**
+ * Node-local kernel a distributed task runs on its block.
+ *
+ * Tasks carry the kernel by name; AUTO lets each member pick one for the
+ * block it received, based on the size of the block and the member's own
+ * cores and JVM flags:
+ *  - FORK_JOIN when the member has several cores and the block is large
+ *    enough to split (all tasks on a member share one pool, with one
+ *    worker per core until tuned, so concurrent tasks do not oversubscribe
+ *    the machine),
+ *  - SIMD when the Vector API module is present,
+ *  - PACKED otherwise.
+ * The tile size, thread count and parallel threshold come from the
+ * member host's TuningProfile.
+ */
+public enum LocalKernel {
+    AUTO, PACKED, TILED, FORK_JOIN, SIMD;
+
+    /**
+     * The concrete kernel this member runs for an m x k by k x n block.
+     */
+    public LocalKernel resolve(int m, int k, int n) {
+        if (this != AUTO) return this;
+
+        double flops = 2.0 * m * k * n;
+        // Below parallelMinFlops the fork/join overhead is not worth it
+        if (cores() > 1 && flops >= TuningProfile.current().parallelMinFlops
+                && Math.max(m, n) > ForkJoinMatrix.LEAF) {
+            return FORK_JOIN;
+        }
+        return VectorizedMatrix.VECTOR_API_AVAILABLE ? SIMD : PACKED;
+    }
+
+    /**
+     * Multiplies A * B with this kernel (AUTO resolves first).
+     */
+    public DenseMatrix multiply(DenseMatrix A, DenseMatrix B) {
+        switch (resolve(A.rows, A.cols, B.cols)) {
+            case TILED:
+                return OptimizedMatrix.multiplyTiled(A, B);
+            case FORK_JOIN:
+                return ForkJoinMatrix.multiply(A, B);
+            case SIMD:
+                return VectorizedMatrix.multiplySimd(A, B);
+            default:
+                return OptimizedMatrix.multiplyPacked(A, B);
+        }
+    }
+
+    /**
+     * Parses a kernel name such as "fork_join" or "SIMD" (null means AUTO).
+     */
+    public static LocalKernel parse(String name) {
+        return name == null ? AUTO : valueOf(name.trim().toUpperCase());
+    }
+
+    private static int cores() {
+        return Runtime.getRuntime().availableProcessors();
+    }
+}
@@ -0,0 +1,33 @@
+import com.hazelcast.nio.serialization.DataSerializableFactory;
+import com.hazelcast.nio.serialization.IdentifiedDataSerializable;
+
+/**
+ * Creates the IdentifiedDataSerializable task and result classes on the
+ * receiving side, so Hazelcast only sends two ints to identify the class
+ * and never uses reflection to instantiate it.
+ */
+public class MatrixDataSerializableFactory implements DataSerializableFactory {
+
+    public static final int FACTORY_ID = 1000;
+
+    public static final int ROW_BLOCK_TASK = 1;
+    public static final int ROW_RANGE_TASK = 2;
+    public static final int ROW_BLOCK_RESULT = 3;
+    public static final int SUMMA_TASK = 4;
+
+    @Override
+    public IdentifiedDataSerializable create(int typeId) {
+        switch (typeId) {
+            case ROW_BLOCK_TASK:
+                return new RowBlockTask();
+            case ROW_RANGE_TASK:
+                return new RowRangeTask();
+            case ROW_BLOCK_RESULT:
+                return new RowBlockResult();
+            case SUMMA_TASK:
+                return new SummaTask();
+            default:
+                return null;
+        }
+    }
+}
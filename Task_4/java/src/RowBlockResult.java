@@ -0,0 +1,66 @@
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+import com.hazelcast.nio.serialization.IdentifiedDataSerializable;
+import java.io.IOException;
+
+/**
+ * Result of a row-range task: the rows [fromRow, fromRow + rows.rows) of C
+ * as one contiguous block, the time the worker spent computing it, and the
+ * local kernel it ran with the throughput it reached.
+ */
+public class RowBlockResult implements IdentifiedDataSerializable {
+
+    public int fromRow;
+    public DenseMatrix rows;
+    public long computeNanos;
+    public String kernel;
+    public double gflops;
+
+    // For deserialization only
+    RowBlockResult() {
+    }
+
+    public RowBlockResult(int fromRow, DenseMatrix rows) {
+        this(fromRow, rows, 0);
+    }
+
+    public RowBlockResult(int fromRow, DenseMatrix rows, long computeNanos) {
+        this(fromRow, rows, computeNanos, null, 0.0);
+    }
+
+    public RowBlockResult(int fromRow, DenseMatrix rows, long computeNanos, String kernel, double gflops) {
+        this.fromRow = fromRow;
+        this.rows = rows;
+        this.computeNanos = computeNanos;
+        this.kernel = kernel;
+        this.gflops = gflops;
+    }
+
+    @Override
+    public int getFactoryId() {
+        return MatrixDataSerializableFactory.FACTORY_ID;
+    }
+
+    @Override
+    public int getClassId() {
+        return MatrixDataSerializableFactory.ROW_BLOCK_RESULT;
+    }
+
+    @Override
+    public void writeData(ObjectDataOutput out) throws IOException {
+        out.writeInt(fromRow);
+        out.writeObject(rows);
+        out.writeLong(computeNanos);
+        out.writeString(kernel);
+        out.writeDouble(gflops);
+    }
+
+    @Override
+    public void readData(ObjectDataInput in) throws IOException {
+        fromRow = in.readInt();
+        rows = in.readObject();
+        computeNanos = in.readLong();
+        kernel = in.readString();
+        gflops = in.readDouble();
+    }
+}
@@ -1,33 +1,63 @@
-import java.io.Serializable;
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+import com.hazelcast.nio.serialization.IdentifiedDataSerializable;
+import java.io.IOException;
 import java.util.concurrent.Callable;
 
 /**
  * A distributed task that multiplies a single row of Matrix A 
  * with the entire Matrix B.
- * Implements Callable for returning a result and Serializable for network transmission.
+ * Implements Callable for returning a result and IdentifiedDataSerializable
+ * for network transmission (the row and B are written as raw double arrays).
  */
-public class RowBlockTask implements Callable<double[]>, Serializable {
-    private static final long serialVersionUID = 1L;
-    
-    private final double[] rowA;
-    private final double[][] matrixB;
+public class RowBlockTask implements Callable<double[]>, IdentifiedDataSerializable {
+
+    private double[] rowA;
+    private DenseMatrix matrixB;
+
+    // For deserialization only
+    RowBlockTask() {
+    }
 
     public RowBlockTask(double[] rowA, double[][] matrixB) {
+        this(rowA, DenseMatrix.of(matrixB));
+    }
+
+    /**
+     * Preferred constructor: B is already flat, so it is serialized as a
+     * single double[] instead of one array per row.
+     */
+    public RowBlockTask(double[] rowA, DenseMatrix matrixB) {
         this.rowA = rowA;
-        this.matrixB = matrixB;
+        this.matrixB = matrixB.rowMajor();
     }
 
     @Override
     public double[] call() {
-        int columnsB = matrixB[0].length;
-        double[] resultRow = new double[columnsB];
-
-        // Perform dot product for the assigned row
-        for (int j = 0; j < columnsB; j++) {
-            for (int k = 0; k < rowA.length; k++) {
-                resultRow[j] += rowA[k] * matrixB[k][j];
-            }
-        }
-        return resultRow;
-    }
-}
\ No newline at end of file
+        // The row is a 1 x k matrix, so the member's local kernel applies as is
+        DenseMatrix row = new DenseMatrix(1, rowA.length, rowA);
+        return LocalKernel.AUTO.multiply(row, matrixB).data;
+    }
+
+    @Override
+    public int getFactoryId() {
+        return MatrixDataSerializableFactory.FACTORY_ID;
+    }
+
+    @Override
+    public int getClassId() {
+        return MatrixDataSerializableFactory.ROW_BLOCK_TASK;
+    }
+
+    @Override
+    public void writeData(ObjectDataOutput out) throws IOException {
+        out.writeDoubleArray(rowA);
+        out.writeObject(matrixB);
+    }
+
+    @Override
+    public void readData(ObjectDataInput in) throws IOException {
+        rowA = in.readDoubleArray();
+        matrixB = in.readObject();
+    }
+}
@@ -0,0 +1,520 @@
+import com.hazelcast.cluster.Member;
+import com.hazelcast.core.ExecutionCallback;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.HazelcastInstanceNotActiveException;
+import com.hazelcast.core.IExecutorService;
+import com.hazelcast.map.IMap;
+import com.hazelcast.spi.exception.RetryableException;
+import com.hazelcast.spi.exception.TargetDisconnectedException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Row-wise distributed multiplication where the data is published once.
+ *
+ * B is stored once in the B map under the job ID, and A is stored as row
+ * blocks in the row-block map. Tasks (RowRangeTask) only carry the job ID
+ * and their row range and are sent to the member that owns their A block.
+ * Each member fetches B at most once thanks to the near cache configured
+ * in LocalCluster, so serialized bytes per job are O(n^2) instead of
+ * O(n^3) for one copy of B per row task.
+ *
+ * Each task covers a range of rows rather than a single row. The range
+ * size is either planned up front from the member count, the cores per
+ * member and the matrix size (multiply), or adjusted after every wave of
+ * tasks from the measured task latency (multiplyAdaptive).
+ *
+ * Results are consumed in completion order: every task reports back
+ * through an ExecutionCallback, and the calling thread hands each block
+ * to the sink as soon as it arrives, so one slow task does not hold up
+ * the blocks behind it. The default sink copies blocks into their rows
+ * of C; stream(...) takes any sink instead (e.g. writeBlock on a mapped
+ * OffHeapMatrix) and never assembles C on the heap.
+ *
+ * The driver tracks the state of every block. An attempt that fails
+ * because its member left the cluster is resubmitted to the new owner of
+ * the block (the maps keep a backup, so the data survives), and near the
+ * end of a job a block that runs much longer than the median task gets a
+ * speculative duplicate on another member. Whichever attempt finishes
+ * first is used; a block that has completed is never computed again.
+ *
+ * Every task runs a LocalKernel on its block. By default each member
+ * picks one (AUTO); the kernels the members chose and the GFLOP/s they
+ * reached are collected in Stats.
+ */
+public class RowRangeJob {
+
+    public static final String A_BLOCKS_MAP = "row-job-a-blocks";
+    public static final String B_MAP = "row-job-b";
+
+    // Tasks per core in the static plan, so uneven task times even out
+    static final int TASKS_PER_CORE = 4;
+
+    // Smallest useful task: below this the round trip costs more than the work
+    static final long MIN_TASK_FLOPS = 1L << 22;
+
+    // Adaptive mode: a task should run OVERHEAD_RATIO times longer than its
+    // measured overhead, and the batch changes by at most MAX_GROWTH per wave
+    static final int OVERHEAD_RATIO = 20;
+    static final int MAX_GROWTH = 4;
+
+    // Attempts per block before a retryable failure fails the job
+    static final int MAX_ATTEMPTS = 5;
+
+    // Once no more than one block per core is left, a block running longer
+    // than SPECULATION_FACTOR times the median compute time (and at least
+    // SPECULATION_MIN_NANOS) is started again on another member
+    static final double SPECULATION_FACTOR = 3.0;
+    static final long SPECULATION_MIN_NANOS = 50_000_000L;
+    static final int SPECULATION_MIN_SAMPLES = 3;
+    static final long POLL_MILLIS = 10;
+
+    /**
+     * Counters describing how a job ran.
+     */
+    public static class Stats {
+        public int blocks;       // blocks of rows the job was split into
+        public int retried;      // attempts resubmitted after a failure
+        public int speculative;  // duplicates started for stragglers
+        public int discarded;    // attempts that finished after their block was done
+
+        public final Map<String, Integer> kernels = new TreeMap<>(); // blocks per local kernel
+        public long computeNanos; // compute time reported by the members
+        public double flops;      // floating-point operations of the finished blocks
+
+        /**
+         * Throughput of the local kernels alone (total work over total
+         * compute time), excluding transfers and queueing.
+         */
+        public double gflops() {
+            return computeNanos == 0 ? 0.0 : flops / computeNanos;
+        }
+    }
+
+    // State of one block of rows; only touched by the driver thread
+    private static class Block {
+        final int from, to;
+        int attempts, running;
+        long started;
+        boolean done, speculated;
+
+        Block(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+    }
+
+    // Outcome of one attempt, queued by its callback
+    private static class Outcome {
+        final Block block;
+        final RowBlockResult result;
+        final Throwable failure;
+
+        Outcome(Block block, RowBlockResult result, Throwable failure) {
+            this.block = block;
+            this.result = result;
+            this.failure = failure;
+        }
+    }
+
+    private final HazelcastInstance hazelcast;
+    private final IExecutorService executor;
+    private final DenseMatrix A;
+    private final DenseMatrix B;
+    private final Consumer<RowBlockResult> sink;
+    private final int granule;
+    private final int slots;
+    private final Stats stats;
+    private final LocalKernel kernel;
+
+    private final String jobId = UUID.randomUUID().toString();
+    private final IMap<String, DenseMatrix> blocksA;
+    private final IMap<String, DenseMatrix> matricesB;
+    private Set<String> keys = Set.of();
+
+    // Blocks that are not done yet, and attempts that finished, in completion order
+    private final Set<Block> open = new LinkedHashSet<>();
+    private final BlockingQueue<Outcome> completed = new LinkedBlockingQueue<>();
+
+    // Sorted compute times of finished blocks, for straggler detection
+    private final List<Long> computeTimes = new ArrayList<>();
+    private long tailStart = -1;
+    private int nextMember;
+
+    private RowRangeJob(HazelcastInstance hazelcast, IExecutorService executor, DenseMatrix A, DenseMatrix B,
+                        int granule, Consumer<RowBlockResult> sink, Stats stats, LocalKernel kernel) {
+        DenseMatrix.checkMultiply(A, B);
+        if (granule < 1) {
+            throw new IllegalArgumentException("Block rows must be positive: " + granule);
+        }
+        this.hazelcast = hazelcast;
+        this.executor = executor;
+        this.A = A;
+        this.B = B;
+        this.sink = sink;
+        this.granule = granule;
+        this.slots = clusterCores(hazelcast);
+        this.stats = stats;
+        this.kernel = kernel;
+        this.blocksA = hazelcast.getMap(A_BLOCKS_MAP);
+        this.matricesB = hazelcast.getMap(B_MAP);
+    }
+
+    /**
+     * Multiplies with the batch size planned from the current cluster.
+     */
+    public static DenseMatrix multiply(HazelcastInstance hazelcast, IExecutorService executor,
+                                       DenseMatrix A, DenseMatrix B)
+            throws InterruptedException, ExecutionException {
+        return multiply(hazelcast, executor, A, B, plannedRows(hazelcast, A, B));
+    }
+
+    /**
+     * Planned batch size, with the given local kernel on every member and
+     * the job's counters recorded in stats.
+     */
+    public static DenseMatrix multiply(HazelcastInstance hazelcast, IExecutorService executor,
+                                       DenseMatrix A, DenseMatrix B, LocalKernel kernel, Stats stats)
+            throws InterruptedException, ExecutionException {
+        DenseMatrix C = new DenseMatrix(A.rows, B.cols);
+        stream(hazelcast, executor, A, B, plannedRows(hazelcast, A, B), into(C), stats, kernel);
+        return C;
+    }
+
+    /**
+     * Multiplies with a fixed number of rows of C per task.
+     */
+    public static DenseMatrix multiply(HazelcastInstance hazelcast, IExecutorService executor,
+                                       DenseMatrix A, DenseMatrix B, int blockRows)
+            throws InterruptedException, ExecutionException {
+        DenseMatrix C = new DenseMatrix(A.rows, B.cols);
+        stream(hazelcast, executor, A, B, blockRows, into(C), new Stats());
+        return C;
+    }
+
+    /**
+     * Like multiply, but hands every finished block to sink (on the calling
+     * thread, in completion order) instead of assembling C.
+     */
+    public static void stream(HazelcastInstance hazelcast, IExecutorService executor,
+                              DenseMatrix A, DenseMatrix B, Consumer<RowBlockResult> sink)
+            throws InterruptedException, ExecutionException {
+        stream(hazelcast, executor, A, B, plannedRows(hazelcast, A, B), sink, new Stats());
+    }
+
+    public static void stream(HazelcastInstance hazelcast, IExecutorService executor,
+                              DenseMatrix A, DenseMatrix B, int blockRows, Consumer<RowBlockResult> sink)
+            throws InterruptedException, ExecutionException {
+        stream(hazelcast, executor, A, B, blockRows, sink, new Stats());
+    }
+
+    /**
+     * Streams with a fixed number of rows per task and records retries and
+     * speculative attempts in stats.
+     */
+    public static void stream(HazelcastInstance hazelcast, IExecutorService executor, DenseMatrix A, DenseMatrix B,
+                              int blockRows, Consumer<RowBlockResult> sink, Stats stats)
+            throws InterruptedException, ExecutionException {
+        stream(hazelcast, executor, A, B, blockRows, sink, stats, LocalKernel.AUTO);
+    }
+
+    public static void stream(HazelcastInstance hazelcast, IExecutorService executor, DenseMatrix A, DenseMatrix B,
+                              int blockRows, Consumer<RowBlockResult> sink, Stats stats, LocalKernel kernel)
+            throws InterruptedException, ExecutionException {
+
+        RowRangeJob job = new RowRangeJob(hazelcast, executor, A, B, blockRows, sink, stats, kernel);
+        try {
+            job.publish();
+
+            for (int from = 0; from < A.rows; from += blockRows) {
+                job.submit(from, Math.min(from + blockRows, A.rows));
+            }
+            while (!job.open.isEmpty()) {
+                job.next();
+            }
+
+        } finally {
+            job.cleanup();
+        }
+    }
+
+    /**
+     * Multiplies in waves of one task per core, resizing the batch after
+     * every wave. The first wave uses the smallest useful task; afterwards
+     * the batch is set so a task takes OVERHEAD_RATIO times the measured
+     * per-task overhead (wave time minus the slowest task's compute time),
+     * but never so large that the remaining rows leave cores idle.
+     */
+    public static DenseMatrix multiplyAdaptive(HazelcastInstance hazelcast, IExecutorService executor,
+                                               DenseMatrix A, DenseMatrix B)
+            throws InterruptedException, ExecutionException {
+
+        int granule = minRows(A.cols, B.cols, A.rows);
+
+        DenseMatrix C = new DenseMatrix(A.rows, B.cols);
+        RowRangeJob job = new RowRangeJob(hazelcast, executor, A, B, granule, into(C), new Stats(),
+                LocalKernel.AUTO);
+        try {
+            job.publish();
+
+            int m = A.rows;
+            int slots = job.slots;
+            int batch = granule;
+            for (int next = 0; next < m; ) {
+                long start = System.nanoTime();
+
+                for (int s = 0; s < slots && next < m; s++) {
+                    int to = Math.min(next + batch, m);
+                    job.submit(next, to);
+                    next = to;
+                }
+
+                long maxCompute = 0, totalCompute = 0;
+                int rows = 0;
+                while (!job.open.isEmpty()) {
+                    RowBlockResult r = job.next();
+                    maxCompute = Math.max(maxCompute, r.computeNanos);
+                    totalCompute += r.computeNanos;
+                    rows += r.rows.rows;
+                }
+                long overhead = Math.max(0, System.nanoTime() - start - maxCompute);
+
+                // Rows per task that make the overhead small, within the growth limit
+                double nanosPerRow = Math.max(1.0, (double) totalCompute / rows);
+                long target = (long) (OVERHEAD_RATIO * overhead / nanosPerRow);
+                long resized = Math.max(batch / MAX_GROWTH, Math.min((long) batch * MAX_GROWTH, target));
+
+                // Keep every slot busy with what is left
+                int fair = (m - next + slots - 1) / slots;
+                batch = (int) Math.min(resized, fair) / granule * granule;
+                batch = Math.max(granule, batch);
+            }
+            return C;
+
+        } finally {
+            job.cleanup();
+        }
+    }
+
+    /**
+     * Sink that copies each block into its rows of C.
+     */
+    public static Consumer<RowBlockResult> into(DenseMatrix C) {
+        return r -> r.rows.copyTo(C.view(r.fromRow, 0, r.rows.rows, C.cols));
+    }
+
+    /**
+     * MatrixEngine that sends large dense products to this cluster as
+     * row-range jobs while it has more than one member, and runs everything
+     * else on the local kernels.
+     */
+    public static MatrixEngine engine(HazelcastInstance hazelcast, IExecutorService executor) {
+        return new MatrixEngine().attachCluster(() -> hazelcast.getCluster().getMembers().size(), (A, B) -> {
+            try {
+                return multiply(hazelcast, executor, A, B);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            } catch (ExecutionException e) {
+                throw new IllegalStateException(e.getCause());
+            }
+        });
+    }
+
+    /**
+     * Rows of C per task for the static plan: about TASKS_PER_CORE tasks
+     * per core in the cluster, but at least MIN_TASK_FLOPS of work each.
+     */
+    public static int batchRows(int members, int coresPerMember, int m, int k, int n) {
+        long tasks = (long) Math.max(1, members) * Math.max(1, coresPerMember) * TASKS_PER_CORE;
+        long rows = (m + tasks - 1) / tasks;
+        return (int) Math.min(m, Math.max(rows, minRows(k, n, m)));
+    }
+
+    /**
+     * Total cores in the cluster, from the attribute every member sets in
+     * LocalCluster (members without it count as one core).
+     */
+    public static int clusterCores(HazelcastInstance hazelcast) {
+        int cores = 0;
+        for (Member member : hazelcast.getCluster().getMembers()) {
+            String value = member.getAttribute(LocalCluster.CORES_ATTRIBUTE);
+            cores += value == null ? 1 : Math.max(1, Integer.parseInt(value));
+        }
+        return cores;
+    }
+
+    private static int plannedRows(HazelcastInstance hazelcast, DenseMatrix A, DenseMatrix B) {
+        int members = hazelcast.getCluster().getMembers().size();
+        int cores = Math.max(1, clusterCores(hazelcast) / members);
+        return batchRows(members, cores, A.rows, A.cols, B.cols);
+    }
+
+    // Rows needed for one task to do at least MIN_TASK_FLOPS
+    private static int minRows(int k, int n, int m) {
+        long flopsPerRow = Math.max(1L, 2L * k * n);
+        return (int) Math.max(1, Math.min(m, (MIN_TASK_FLOPS + flopsPerRow - 1) / flopsPerRow));
+    }
+
+    // Publishes B once and A in blocks of granule rows (compact copies, so
+    // views do not serialize their whole backing array)
+    private void publish() {
+        Map<String, DenseMatrix> blocks = new HashMap<>();
+        for (int from = 0; from < A.rows; from += granule) {
+            int rows = Math.min(granule, A.rows - from);
+            blocks.put(blockKey(jobId, from), A.view(from, 0, rows, A.cols).copy());
+        }
+        keys = blocks.keySet();
+
+        matricesB.set(jobId, B.copy());
+        blocksA.putAll(blocks);
+    }
+
+    // Starts tracking the rows [from, to) and sends them to their key owner
+    private void submit(int from, int to) {
+        Block block = new Block(from, to);
+        open.add(block);
+        stats.blocks++;
+        attempt(block, null);
+    }
+
+    // Runs one attempt of a block on target (or on the current owner of its
+    // first A block); the callback queues the outcome as soon as the member
+    // answers. Attempts always go to an explicit member: if it leaves, the
+    // callback fails with MemberLeftException and the block is resubmitted
+    // here, instead of Hazelcast silently re-invoking the task.
+    private void attempt(Block block, Member target) {
+        block.attempts++;
+        block.running++;
+        block.started = System.nanoTime();
+
+        RowRangeTask task = new RowRangeTask(jobId, block.from, block.to, granule, kernel);
+        ExecutionCallback<RowBlockResult> callback = new ExecutionCallback<RowBlockResult>() {
+            @Override
+            public void onResponse(RowBlockResult response) {
+                completed.add(new Outcome(block, response, null));
+            }
+
+            @Override
+            public void onFailure(Throwable t) {
+                completed.add(new Outcome(block, null, t));
+            }
+        };
+
+        if (target == null) {
+            target = hazelcast.getPartitionService().getPartition(blockKey(jobId, block.from)).getOwner();
+        }
+        if (target == null) {
+            // Partition is being migrated; let Hazelcast route it
+            executor.submitToKeyOwner(task, blockKey(jobId, block.from), callback);
+        } else {
+            executor.submitToMember(task, target, callback);
+        }
+    }
+
+    // Waits until a block finishes for the first time and hands it to the
+    // sink. Failed attempts are retried and stragglers duplicated meanwhile.
+    private RowBlockResult next() throws InterruptedException, ExecutionException {
+        while (true) {
+            Outcome outcome = completed.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+            if (outcome == null) {
+                speculate();
+                continue;
+            }
+
+            Block block = outcome.block;
+            block.running--;
+            if (block.done) {
+                stats.discarded++;
+                continue;
+            }
+
+            if (outcome.failure != null) {
+                if (block.running > 0) continue; // another attempt may still succeed
+                if (!retryable(outcome.failure) || block.attempts >= MAX_ATTEMPTS) {
+                    throw new ExecutionException("Rows " + block.from + ".." + block.to + " failed after "
+                            + block.attempts + " attempt(s)", outcome.failure);
+                }
+                stats.retried++;
+                attempt(block, null);
+                continue;
+            }
+
+            block.done = true;
+            open.remove(block);
+            RowBlockResult result = outcome.result;
+            long compute = result.computeNanos;
+            int at = Collections.binarySearch(computeTimes, compute);
+            computeTimes.add(at < 0 ? -at - 1 : at, compute);
+
+            if (result.kernel != null) stats.kernels.merge(result.kernel, 1, Integer::sum);
+            stats.computeNanos += compute;
+            stats.flops += 2.0 * result.rows.rows * A.cols * B.cols;
+
+            sink.accept(result);
+            speculate();
+            return result;
+        }
+    }
+
+    // Starts a duplicate on another member for blocks in the tail of the job
+    // that run far longer than the median compute time
+    private void speculate() {
+        List<Member> members = new ArrayList<>(hazelcast.getCluster().getMembers());
+        if (members.size() < 2 || open.size() > slots || computeTimes.size() < SPECULATION_MIN_SAMPLES) {
+            return;
+        }
+
+        long now = System.nanoTime();
+        if (tailStart < 0) tailStart = now;
+
+        long median = computeTimes.get(computeTimes.size() / 2);
+        long threshold = Math.max(SPECULATION_MIN_NANOS, (long) (SPECULATION_FACTOR * median));
+
+        for (Block block : open) {
+            if (block.speculated || block.running == 0) continue;
+            if (now - Math.max(block.started, tailStart) < threshold) continue;
+
+            Member owner = hazelcast.getPartitionService().getPartition(blockKey(jobId, block.from)).getOwner();
+            Member target = members.get(nextMember++ % members.size());
+            if (target.equals(owner)) target = members.get(nextMember++ % members.size());
+
+            block.speculated = true;
+            stats.speculative++;
+            attempt(block, target);
+        }
+    }
+
+    // Failures caused by a member leaving or shutting down; the block can
+    // run again on a surviving member
+    private static boolean retryable(Throwable t) {
+        for (; t != null; t = t.getCause()) {
+            if (t instanceof RetryableException || t instanceof HazelcastInstanceNotActiveException
+                    || t instanceof TargetDisconnectedException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void cleanup() {
+        for (String key : keys) blocksA.delete(key);
+        matricesB.delete(jobId);
+    }
+
+    static String blockKey(String jobId, int fromRow) {
+        return jobId + "/" + fromRow;
+    }
+}
@@ -0,0 +1,132 @@
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.HazelcastInstanceAware;
+import com.hazelcast.core.HazelcastInstanceNotActiveException;
+import com.hazelcast.map.IMap;
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+import com.hazelcast.nio.serialization.IdentifiedDataSerializable;
+import java.io.IOException;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+
+/**
+ * A distributed task that computes the rows [fromRow, toRow) of C.
+ *
+ * Unlike RowBlockTask it carries no matrix data, only the job ID and its
+ * row range. A is stored in blocks of granule rows; the range covers one
+ * or more whole blocks, which are read from the row-block map (the task is
+ * submitted to the owner of its first block, so with one block per task
+ * the read is local). B is read from the B map, which every member keeps
+ * in its near cache after the first read.
+ *
+ * The block is multiplied with the task's LocalKernel (AUTO lets this
+ * member choose from its own cores and the block size). The result reports
+ * the kernel that ran, how long the multiplication itself took (which the
+ * adaptive mode of RowRangeJob uses to size later batches) and its GFLOP/s.
+ */
+public class RowRangeTask implements Callable<RowBlockResult>, IdentifiedDataSerializable,
+        HazelcastInstanceAware {
+
+    private String jobId;
+    private int fromRow;
+    private int toRow;
+    private int granule;
+    private LocalKernel kernel = LocalKernel.AUTO;
+
+    private transient HazelcastInstance hazelcast;
+
+    // For deserialization only
+    RowRangeTask() {
+    }
+
+    public RowRangeTask(String jobId, int fromRow, int toRow, int granule) {
+        this(jobId, fromRow, toRow, granule, LocalKernel.AUTO);
+    }
+
+    public RowRangeTask(String jobId, int fromRow, int toRow, int granule, LocalKernel kernel) {
+        this.jobId = jobId;
+        this.fromRow = fromRow;
+        this.toRow = toRow;
+        this.granule = granule;
+        this.kernel = kernel;
+    }
+
+    @Override
+    public void setHazelcastInstance(HazelcastInstance hazelcast) {
+        this.hazelcast = hazelcast;
+    }
+
+    @Override
+    public RowBlockResult call() {
+        IMap<String, DenseMatrix> blocksA = hazelcast.getMap(RowRangeJob.A_BLOCKS_MAP);
+        IMap<String, DenseMatrix> matricesB = hazelcast.getMap(RowRangeJob.B_MAP);
+
+        DenseMatrix matrixB = matricesB.get(jobId);
+        DenseMatrix rowsA = toRow - fromRow <= granule
+                ? blocksA.get(RowRangeJob.blockKey(jobId, fromRow))
+                : readBlocks(blocksA, matrixB == null ? 0 : matrixB.rows);
+        if ((rowsA == null || matrixB == null) && !hazelcast.getLifecycleService().isRunning()) {
+            // This member is going down and its partitions are already gone
+            throw new HazelcastInstanceNotActiveException();
+        }
+        if (rowsA == null || matrixB == null) {
+            throw new IllegalStateException((rowsA == null ? "Rows " + fromRow + ".." + toRow + " of A" : "B")
+                    + " for job " + jobId + " not found");
+        }
+
+        LocalKernel chosen = kernel.resolve(rowsA.rows, rowsA.cols, matrixB.cols);
+        long start = System.nanoTime();
+        DenseMatrix rowsC = chosen.multiply(rowsA, matrixB);
+        long nanos = Math.max(1, System.nanoTime() - start);
+
+        double flops = 2.0 * rowsA.rows * rowsA.cols * matrixB.cols;
+        return new RowBlockResult(fromRow, rowsC, nanos, chosen.name(), flops / nanos);
+    }
+
+    // Fetches every block of the range in one call and stacks them
+    private DenseMatrix readBlocks(IMap<String, DenseMatrix> blocksA, int cols) {
+        Set<String> keys = new LinkedHashSet<>();
+        for (int row = fromRow; row < toRow; row += granule) {
+            keys.add(RowRangeJob.blockKey(jobId, row));
+        }
+        Map<String, DenseMatrix> blocks = blocksA.getAll(keys);
+
+        DenseMatrix rowsA = new DenseMatrix(toRow - fromRow, cols);
+        for (int row = fromRow; row < toRow; row += granule) {
+            DenseMatrix block = blocks.get(RowRangeJob.blockKey(jobId, row));
+            if (block == null) return null;
+            block.copyTo(rowsA.view(row - fromRow, 0, block.rows, cols));
+        }
+        return rowsA;
+    }
+
+    @Override
+    public int getFactoryId() {
+        return MatrixDataSerializableFactory.FACTORY_ID;
+    }
+
+    @Override
+    public int getClassId() {
+        return MatrixDataSerializableFactory.ROW_RANGE_TASK;
+    }
+
+    @Override
+    public void writeData(ObjectDataOutput out) throws IOException {
+        out.writeString(jobId);
+        out.writeInt(fromRow);
+        out.writeInt(toRow);
+        out.writeInt(granule);
+        out.writeString(kernel.name());
+    }
+
+    @Override
+    public void readData(ObjectDataInput in) throws IOException {
+        jobId = in.readString();
+        fromRow = in.readInt();
+        toRow = in.readInt();
+        granule = in.readInt();
+        kernel = LocalKernel.valueOf(in.readString());
+    }
+}
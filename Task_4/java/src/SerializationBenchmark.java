@@ -0,0 +1,137 @@
+import com.hazelcast.internal.serialization.Data;
+import com.hazelcast.internal.serialization.InternalSerializationService;
+import com.hazelcast.internal.serialization.impl.DefaultSerializationServiceBuilder;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.PrintWriter;
+import java.io.Serializable;
+import java.util.Random;
+
+/**
+ * Compares the payloads of the distributed schemes under the original
+ * java.io.Serializable path and under the Hazelcast serializers
+ * registered in LocalCluster (DenseMatrixSerializer and the
+ * IdentifiedDataSerializable tasks).
+ *
+ * For every payload and size it records the serialized size and the mean
+ * encode and decode time into results/serialization.csv. No cluster is
+ * started: both paths run in this JVM, so only serialization is measured.
+ */
+public class SerializationBenchmark {
+
+    private static final int WARMUP = 5;
+    private static final int RUNS = 20;
+
+    // The task as it was before: one row of A and B as double[][]
+    private static class LegacyRowTask implements Serializable {
+        private static final long serialVersionUID = 1L;
+        final double[] rowA;
+        final double[][] matrixB;
+
+        LegacyRowTask(double[] rowA, double[][] matrixB) {
+            this.rowA = rowA;
+            this.matrixB = matrixB;
+        }
+    }
+
+    private interface Codec {
+        byte[] encode(Object o) throws Exception;
+        Object decode(byte[] bytes) throws Exception;
+    }
+
+    public static void main(String[] args) throws Exception {
+        int[] sizes = {200, 400, 600, 1000};
+        String filename = "results/serialization.csv";
+
+        new File("results").mkdirs();
+        InternalSerializationService hazelcast = new DefaultSerializationServiceBuilder()
+                .setConfig(LocalCluster.config().getSerializationConfig())
+                .build();
+
+        Codec java = new Codec() {
+            public byte[] encode(Object o) throws IOException {
+                ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+                    out.writeObject(o);
+                }
+                return bytes.toByteArray();
+            }
+
+            public Object decode(byte[] bytes) throws IOException, ClassNotFoundException {
+                try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+                    return in.readObject();
+                }
+            }
+        };
+        Codec custom = new Codec() {
+            public byte[] encode(Object o) {
+                return hazelcast.toData(o).toByteArray();
+            }
+
+            public Object decode(byte[] bytes) {
+                Data data = new com.hazelcast.internal.serialization.impl.HeapData(bytes);
+                return hazelcast.toObject(data);
+            }
+        };
+
+        try (PrintWriter writer = new PrintWriter(new FileWriter(filename))) {
+            writer.println("payload,size,method,bytes,encode_ms,decode_ms");
+            Random rand = new Random(42);
+
+            for (int n : sizes) {
+                DenseMatrix B = DenseMatrix.random(n, n, rand);
+                double[][] arrayB = B.toArray();
+                double[] rowA = new double[n];
+                for (int j = 0; j < n; j++) rowA[j] = rand.nextDouble();
+                DenseMatrix rows = DenseMatrix.random(Math.max(1, n / 8), n, rand);
+
+                // Matrix B as shipped to the workers
+                run(writer, "matrix", n, "java", java, arrayB);
+                run(writer, "matrix", n, "java_dense", java, B);
+                run(writer, "matrix", n, "hazelcast", custom, B);
+
+                // One row task (row of A plus all of B)
+                run(writer, "row_task", n, "java", java, new LegacyRowTask(rowA, arrayB));
+                run(writer, "row_task", n, "hazelcast", custom, new RowBlockTask(rowA, B));
+
+                // A block of n / 8 result rows
+                run(writer, "row_block", n, "java", java, rows.toArray());
+                run(writer, "row_block", n, "hazelcast", custom, new RowBlockResult(0, rows));
+            }
+        }
+        hazelcast.dispose();
+        System.out.println("Results saved to: " + filename);
+    }
+
+    private static void run(PrintWriter writer, String payload, int n, String method, Codec codec, Object value)
+            throws Exception {
+        byte[] bytes = null;
+        for (int r = 0; r < WARMUP; r++) {
+            bytes = codec.encode(value);
+            codec.decode(bytes);
+        }
+
+        long encode = 0, decode = 0;
+        for (int r = 0; r < RUNS; r++) {
+            long t0 = System.nanoTime();
+            bytes = codec.encode(value);
+            long t1 = System.nanoTime();
+            codec.decode(bytes);
+            long t2 = System.nanoTime();
+            encode += t1 - t0;
+            decode += t2 - t1;
+        }
+
+        double encodeMs = encode / 1e6 / RUNS;
+        double decodeMs = decode / 1e6 / RUNS;
+        System.out.printf("%-10s n=%-5d %-11s %10d bytes  encode %8.3f ms  decode %8.3f ms%n",
+                payload, n, method, bytes.length, encodeMs, decodeMs);
+        writer.printf(java.util.Locale.US, "%s,%d,%s,%d,%.4f,%.4f%n",
+                payload, n, method, bytes.length, encodeMs, decodeMs);
+    }
+}
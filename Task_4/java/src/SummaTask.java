@@ -0,0 +1,144 @@
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.HazelcastInstanceAware;
+import com.hazelcast.map.IMap;
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+import com.hazelcast.nio.serialization.IdentifiedDataSerializable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+
+/**
+ * Work of one member in the SUMMA block multiplication.
+ *
+ * The member sits at (gridRow, gridCol) of a gridRows x gridCols process
+ * grid and owns every C tile (i, j) with i % gridRows == gridRow and
+ * j % gridCols == gridCol. For each step k it fetches only the A tiles
+ * (i, k) of its own tile rows and the B tiles (k, j) of its own tile
+ * columns, accumulates them into its C tiles and drops them again.
+ * The task itself only carries the job ID and grid coordinates.
+ *
+ * Returns the number of C tiles computed.
+ */
+public class SummaTask implements Callable<Integer>, IdentifiedDataSerializable, HazelcastInstanceAware {
+
+    private String jobId;
+    private int m, k, n, tile;
+    private int gridRows, gridCols, gridRow, gridCol;
+
+    private transient HazelcastInstance hazelcast;
+
+    // For deserialization only
+    SummaTask() {
+    }
+
+    public SummaTask(String jobId, int m, int k, int n, int tile,
+                     int gridRows, int gridCols, int gridRow, int gridCol) {
+        this.jobId = jobId;
+        this.m = m;
+        this.k = k;
+        this.n = n;
+        this.tile = tile;
+        this.gridRows = gridRows;
+        this.gridCols = gridCols;
+        this.gridRow = gridRow;
+        this.gridCol = gridCol;
+    }
+
+    @Override
+    public void setHazelcastInstance(HazelcastInstance hazelcast) {
+        this.hazelcast = hazelcast;
+    }
+
+    @Override
+    public Integer call() {
+        IMap<String, DenseMatrix> tilesA = hazelcast.getMap(SummaMultiplication.mapName(jobId, "A"));
+        IMap<String, DenseMatrix> tilesB = hazelcast.getMap(SummaMultiplication.mapName(jobId, "B"));
+        IMap<String, DenseMatrix> tilesC = hazelcast.getMap(SummaMultiplication.mapName(jobId, "C"));
+
+        int tileRows = (m + tile - 1) / tile;
+        int tileCols = (n + tile - 1) / tile;
+        int tileSteps = (k + tile - 1) / tile;
+
+        // Tile rows and columns of C owned by this member
+        List<Integer> myRows = new ArrayList<>();
+        for (int i = gridRow; i < tileRows; i += gridRows) myRows.add(i);
+        List<Integer> myCols = new ArrayList<>();
+        for (int j = gridCol; j < tileCols; j += gridCols) myCols.add(j);
+
+        Map<String, DenseMatrix> myC = new HashMap<>();
+        for (int i : myRows) {
+            for (int j : myCols) {
+                int rows = Math.min(tile, m - i * tile);
+                int cols = Math.min(tile, n - j * tile);
+                myC.put(SummaMultiplication.key(i, j), new DenseMatrix(rows, cols));
+            }
+        }
+        if (myC.isEmpty()) return 0;
+
+        PackedGemm.Workspace ws = new PackedGemm.Workspace(tile, tile, tile);
+
+        for (int step = 0; step < tileSteps; step++) {
+            // Fetch the A column panel and B row panel for this step (only our rows/cols)
+            Set<String> keysA = new HashSet<>();
+            for (int i : myRows) keysA.add(SummaMultiplication.key(i, step));
+            Set<String> keysB = new HashSet<>();
+            for (int j : myCols) keysB.add(SummaMultiplication.key(step, j));
+
+            Map<String, DenseMatrix> panelA = tilesA.getAll(keysA);
+            Map<String, DenseMatrix> panelB = tilesB.getAll(keysB);
+
+            for (int i : myRows) {
+                DenseMatrix a = panelA.get(SummaMultiplication.key(i, step));
+                for (int j : myCols) {
+                    DenseMatrix b = panelB.get(SummaMultiplication.key(step, j));
+                    PackedGemm.multiplyInto(a, b, myC.get(SummaMultiplication.key(i, j)), ws);
+                }
+            }
+        }
+
+        tilesC.putAll(myC);
+        return myC.size();
+    }
+
+    @Override
+    public int getFactoryId() {
+        return MatrixDataSerializableFactory.FACTORY_ID;
+    }
+
+    @Override
+    public int getClassId() {
+        return MatrixDataSerializableFactory.SUMMA_TASK;
+    }
+
+    @Override
+    public void writeData(ObjectDataOutput out) throws IOException {
+        out.writeString(jobId);
+        out.writeInt(m);
+        out.writeInt(k);
+        out.writeInt(n);
+        out.writeInt(tile);
+        out.writeInt(gridRows);
+        out.writeInt(gridCols);
+        out.writeInt(gridRow);
+        out.writeInt(gridCol);
+    }
+
+    @Override
+    public void readData(ObjectDataInput in) throws IOException {
+        jobId = in.readString();
+        m = in.readInt();
+        k = in.readInt();
+        n = in.readInt();
+        tile = in.readInt();
+        gridRows = in.readInt();
+        gridCols = in.readInt();
+        gridRow = in.readInt();
+        gridCol = in.readInt();
+    }
+}
@@ -0,0 +1,30 @@
+#!/bin/bash
+
+# Always use the directory where run.sh is located
+SCRIPT_DIR="$(cd "$(dirname "$0")" && pwd)"
+cd "$SCRIPT_DIR" || exit 1
+
+echo "==> Creating results directory..."
+mkdir -p results
+
+echo "==> Building the benchmark jar..."
+mvn -B -q package
+if [ $? -ne 0 ]; then
+    echo "[ERROR] Maven build failed."
+    exit 1
+fi
+
+# --perf: hardware counters per FLOP instead (Linux with perf only)
+if [ "$1" = "--perf" ]; then
+    shift
+    echo "==> Running JMH benchmarks with perf counters..."
+    java -cp target/benchmarks.jar matrix.jmh.PerfProfile "$@" || exit 1
+    exit 0
+fi
+
+# Extra arguments are passed to JMH, e.g. a benchmark name pattern or
+# "-p size=512 -p threads=4" to narrow the parameter grid
+echo "==> Running JMH benchmarks (GC profiler on)..."
+java -jar target/benchmarks.jar -prof gc -rf csv -rff results/jmh_results.csv "$@"
+
+echo "==> Results stored in results/jmh_results.csv"
@@ -0,0 +1,352 @@
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Supplier;
+
+/**
+ * Entry point of the JMH benchmarks into the matrix kernels.
+ *
+ * JMH only accepts benchmark classes in a named package, and a named
+ * package cannot refer to the kernels, which live in the default package.
+ * The benchmarks therefore look this class up by name and only see JDK
+ * types: each method generates the inputs once and returns an operation
+ * that runs one multiplication on them.
+ */
+public class MatrixKernels {
+
+    // Sequential dense kernels
+    public static final List<String> DENSE = List.of(
+            "basic", "cacheFriendly", "tiled16", "tiled32", "tiled64",
+            "packed", "strassen", "vectorized", "simd");
+
+    // Dense kernels that take a thread count
+    public static final List<String> PARALLEL = List.of("threadPool", "parallelStream", "forkJoin");
+
+    // Kernels for skewed m x k by k x n products
+    public static final List<String> RECTANGULAR = List.of("packed", "forkJoin", "rectangular");
+
+    // Storage and accumulation: double, float, or float storage with double sums
+    public static final List<String> PRECISIONS = List.of("double", "float", "mixed");
+
+    // Ways to run a batch of small products
+    public static final List<String> BATCHED = List.of("perPair", "batched", "batchedParallel");
+
+    /**
+     * One size x size product with the given kernel (threads is only used
+     * by the PARALLEL kernels).
+     */
+    public static Supplier<Object> dense(String kernel, int size, int threads, long seed) {
+        Random rand = new Random(seed);
+        DenseMatrix A = DenseMatrix.random(size, size, rand);
+        DenseMatrix B = DenseMatrix.random(size, size, rand);
+
+        switch (kernel) {
+            case "basic":
+                return () -> OptimizedMatrix.multiplyBasic(A, B);
+            case "cacheFriendly":
+                return () -> OptimizedMatrix.multiplyCacheFriendly(A, B);
+            case "tiled16":
+                return () -> OptimizedMatrix.multiplyTiled(A, B, 16);
+            case "tiled32":
+                return () -> OptimizedMatrix.multiplyTiled(A, B, 32);
+            case "tiled64":
+                return () -> OptimizedMatrix.multiplyTiled(A, B, 64);
+            case "packed":
+                return () -> PackedGemm.multiply(A, B);
+            case "strassen":
+                return () -> StrassenMatrix.multiply(A, B);
+            case "vectorized":
+                return () -> VectorizedMatrix.multiply(A, B);
+            case "simd":
+                return () -> VectorizedMatrix.multiplySimd(A, B);
+            case "threadPool":
+                return () -> threadPool(A, B, threads);
+            case "parallelStream":
+                // A parallel stream started inside a pool runs on that pool
+                return () -> ForkJoinMatrix.pool(threads).submit(() -> ParallelStreamMatrix.multiply(A, B)).join();
+            case "forkJoin":
+                return () -> ForkJoinMatrix.multiply(A, B, threads);
+            default:
+                throw new IllegalArgumentException("Unknown dense kernel: " + kernel);
+        }
+    }
+
+    /**
+     * One product of the given shape ("m x k x n", e.g. "65536x64x64"):
+     * packed runs PackedGemm sequentially, forkJoin splits C recursively and
+     * rectangular splits only the largest dimension (RectangularMatrix).
+     */
+    public static Supplier<Object> rectangular(String kernel, String shape, int threads, long seed) {
+        Random rand = new Random(seed);
+        int[] dims = dims(shape);
+        DenseMatrix A = DenseMatrix.random(dims[0], dims[1], rand);
+        DenseMatrix B = DenseMatrix.random(dims[1], dims[2], rand);
+
+        switch (kernel) {
+            case "packed":
+                return () -> PackedGemm.multiply(A, B);
+            case "forkJoin":
+                return () -> ForkJoinMatrix.multiply(A, B, threads);
+            case "rectangular":
+                return () -> RectangularMatrix.multiply(A, B, threads);
+            default:
+                throw new IllegalArgumentException("Unknown rectangular kernel: " + kernel);
+        }
+    }
+
+    /**
+     * Floating-point operations of one product of the given shape.
+     */
+    public static double rectangularFlops(String shape) {
+        int[] dims = dims(shape);
+        return 2.0 * dims[0] * dims[1] * dims[2];
+    }
+
+    /**
+     * One y = A * x on a random rows x cols dense matrix, sequential for one
+     * thread and split by RectangularMatrix otherwise.
+     */
+    public static Supplier<Object> gemv(int rows, int cols, int threads, long seed) {
+        Random rand = new Random(seed);
+        DenseMatrix A = DenseMatrix.random(rows, cols, rand);
+        double[] x = new double[cols];
+        for (int i = 0; i < cols; i++) {
+            x[i] = rand.nextDouble();
+        }
+
+        if (threads == 1) {
+            return () -> OptimizedMatrix.multiplyVector(A, x);
+        }
+        return () -> RectangularMatrix.multiplyVector(A, x, threads);
+    }
+
+    /**
+     * One size x size product with the tiled or simd kernel in one of
+     * PRECISIONS. Float and mixed round the same random operands to floats.
+     */
+    public static Supplier<Object> precision(String kernel, String precision, int size, long seed) {
+        Random rand = new Random(seed);
+        DenseMatrix A = DenseMatrix.random(size, size, rand);
+        DenseMatrix B = DenseMatrix.random(size, size, rand);
+        FloatMatrix Af = FloatMatrix.of(A), Bf = FloatMatrix.of(B);
+        boolean simd = kernel.equals("simd");
+        if (!simd && !kernel.equals("tiled")) {
+            throw new IllegalArgumentException("Unknown precision kernel: " + kernel);
+        }
+
+        switch (precision) {
+            case "double":
+                return simd ? () -> VectorizedMatrix.multiplySimd(A, B) : () -> OptimizedMatrix.multiplyTiled(A, B);
+            case "float":
+                return simd ? () -> VectorizedMatrix.multiplySimd(Af, Bf) : () -> OptimizedMatrix.multiplyTiled(Af, Bf);
+            case "mixed":
+                return simd ? () -> VectorizedMatrix.multiplySimdMixed(Af, Bf)
+                        : () -> OptimizedMatrix.multiplyTiledMixed(Af, Bf);
+            default:
+                throw new IllegalArgumentException("Unknown precision: " + precision);
+        }
+    }
+
+    /**
+     * Relative error of that product against the double product of the
+     * same kernel, max |C - C_double| / max |C_double|.
+     */
+    public static double precisionError(String kernel, String precision, int size, long seed) {
+        DenseMatrix reference = (DenseMatrix) precision(kernel, "double", size, seed).get();
+        Object C = precision(kernel, precision, size, seed).get();
+        return C instanceof FloatMatrix
+                ? FloatMatrix.relativeError((FloatMatrix) C, reference)
+                : FloatMatrix.relativeError((DenseMatrix) C, reference);
+    }
+
+    /**
+     * Products of batchSize(size) random size x size pairs: perPair calls
+     * OptimizedMatrix.multiplyBasic on double[][] once per pair, batched
+     * and batchedParallel run BatchedGemm on one strided buffer per operand
+     * (threads is only used by batchedParallel).
+     */
+    public static Supplier<Object> batched(String kernel, int size, int threads, long seed) {
+        Random rand = new Random(seed);
+        int batch = batchSize(size);
+        int stride = size * size;
+        double[] a = new double[batch * stride];
+        double[] b = new double[batch * stride];
+        double[] c = new double[batch * stride];
+        for (int i = 0; i < a.length; i++) {
+            a[i] = rand.nextDouble();
+            b[i] = rand.nextDouble();
+        }
+
+        switch (kernel) {
+            case "perPair":
+                double[][][] As = new double[batch][][];
+                double[][][] Bs = new double[batch][][];
+                for (int p = 0; p < batch; p++) {
+                    As[p] = new DenseMatrix(size, size, Arrays.copyOfRange(a, p * stride, (p + 1) * stride)).toArray();
+                    Bs[p] = new DenseMatrix(size, size, Arrays.copyOfRange(b, p * stride, (p + 1) * stride)).toArray();
+                }
+                return () -> {
+                    double[][] last = null;
+                    for (int p = 0; p < batch; p++) {
+                        last = OptimizedMatrix.multiplyBasic(As[p], Bs[p]);
+                    }
+                    return last;
+                };
+            case "batched":
+                return () -> {
+                    BatchedGemm.multiply(size, size, size, batch, a, 0, stride, b, 0, stride, c, 0, stride);
+                    return c;
+                };
+            case "batchedParallel":
+                ForkJoinPool pool = ForkJoinMatrix.pool(threads);
+                return () -> {
+                    pool.submit(() -> BatchedGemm.multiplyParallel(size, size, size, batch,
+                            a, 0, stride, b, 0, stride, c, 0, stride, threads)).join();
+                    return c;
+                };
+            default:
+                throw new IllegalArgumentException("Unknown batched kernel: " + kernel);
+        }
+    }
+
+    /**
+     * Pairs per batch: 2^20 values per operand (8 MB), whatever the size.
+     */
+    public static int batchSize(int size) {
+        return Math.max(1, (1 << 20) / (size * size));
+    }
+
+    /**
+     * Floating-point operations of one batch of size x size products.
+     */
+    public static double batchedFlops(int size) {
+        return batchSize(size) * denseFlops(size);
+    }
+
+    /**
+     * One y = A * x on a random rows x rows CSR matrix with nnzPerRow
+     * non-zeros per row, sequential for one thread and split by non-zeros
+     * otherwise. The output vector is reused, as in an iterative solver.
+     * precision is one of PRECISIONS (FloatCSRMatrix for float and mixed).
+     */
+    public static Supplier<Object> spmv(int rows, int nnzPerRow, int threads, String precision, long seed) {
+        Random rand = new Random(seed);
+        CSRMatrix A = randomCSR(rows, nnzPerRow, rand);
+        double[] x = new double[rows];
+        for (int i = 0; i < rows; i++) {
+            x[i] = rand.nextDouble();
+        }
+        double[] y = new double[rows];
+        ForkJoinPool pool = ForkJoinMatrix.pool(threads);
+
+        if (!precision.equals("double")) {
+            FloatCSRMatrix Af = FloatCSRMatrix.of(A);
+            float[] xf = toFloats(x);
+            float[] yf = new float[rows];
+            switch (precision) {
+                case "float":
+                    return threads == 1 ? () -> {
+                        Af.multiply(xf, yf);
+                        return yf;
+                    } : () -> {
+                        pool.submit(() -> Af.multiplyParallel(xf, yf, threads)).join();
+                        return yf;
+                    };
+                case "mixed":
+                    return threads == 1 ? () -> {
+                        Af.multiply(xf, y);
+                        return y;
+                    } : () -> {
+                        pool.submit(() -> Af.multiplyParallel(xf, y, threads)).join();
+                        return y;
+                    };
+                default:
+                    throw new IllegalArgumentException("Unknown precision: " + precision);
+            }
+        }
+
+        if (threads == 1) {
+            return () -> {
+                A.multiply(x, y);
+                return y;
+            };
+        }
+        return () -> {
+            pool.submit(() -> A.multiplyParallel(x, y, threads)).join();
+            return y;
+        };
+    }
+
+    /**
+     * Floating-point operations of one dense product (2 n^3, also for
+     * Strassen, so GFLOP/s compare time to the same result).
+     */
+    public static double denseFlops(int size) {
+        return 2.0 * size * size * size;
+    }
+
+    /**
+     * Floating-point operations of one dense GEMV.
+     */
+    public static double gemvFlops(int rows, int cols) {
+        return 2.0 * rows * cols;
+    }
+
+    /**
+     * Floating-point operations of one SpMV (one multiply-add per non-zero).
+     */
+    public static double spmvFlops(int rows, int nnzPerRow) {
+        return 2.0 * rows * Math.min(nnzPerRow, rows);
+    }
+
+    // "m x k x n" to {m, k, n}
+    private static int[] dims(String shape) {
+        String[] parts = shape.split("x");
+        if (parts.length != 3) {
+            throw new IllegalArgumentException("Shape must be m x k x n: " + shape);
+        }
+        return new int[]{Integer.parseInt(parts[0]), Integer.parseInt(parts[1]), Integer.parseInt(parts[2])};
+    }
+
+    private static DenseMatrix threadPool(DenseMatrix A, DenseMatrix B, int threads) {
+        try {
+            return ParallelMatrix.multiply(A, B, threads);
+        } catch (InterruptedException | ExecutionException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // Rounds v to floats
+    private static float[] toFloats(double[] v) {
+        float[] f = new float[v.length];
+        for (int i = 0; i < v.length; i++) {
+            f[i] = (float) v[i];
+        }
+        return f;
+    }
+
+    // Random CSR matrix with nnzPerRow distinct, sorted columns per row
+    private static CSRMatrix randomCSR(int rows, int nnzPerRow, Random rand) {
+        int perRow = Math.min(nnzPerRow, rows);
+        CSRMatrix M = new CSRMatrix();
+        M.rows = rows;
+        M.cols = rows;
+        M.rowPtr = new int[rows + 1];
+        M.colIndex = new int[rows * perRow];
+        M.values = new double[rows * perRow];
+
+        int stride = rows / perRow;
+        for (int i = 0; i < rows; i++) {
+            int base = i * perRow;
+            // One column per stride-wide band keeps columns distinct and sorted
+            for (int p = 0; p < perRow; p++) {
+                M.colIndex[base + p] = p * stride + rand.nextInt(stride);
+                M.values[base + p] = rand.nextDouble();
+            }
+            M.rowPtr[i + 1] = base + perRow;
+        }
+        return M;
+    }
+}
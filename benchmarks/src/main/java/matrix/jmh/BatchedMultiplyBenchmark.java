@@ -0,0 +1,54 @@
+package matrix.jmh;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Many small independent products (Task 2's BatchedGemm) against one
+ * multiplyBasic call per pair. Every operation multiplies a whole batch
+ * of 2^20 values per operand, so the batch shrinks as size grows.
+ * threads is only used by batchedParallel.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xmx4g"})
+@State(Scope.Benchmark)
+public class BatchedMultiplyBenchmark {
+
+    @Param({"4", "8", "16", "32", "64"})
+    public int size;
+
+    @Param({"perPair", "batched", "batchedParallel"})
+    public String kernel;
+
+    @Param({"4"})
+    public int threads;
+
+    private Supplier<Object> multiply;
+    private double gflopPerOp;
+
+    @Setup
+    public void setup() {
+        multiply = Kernels.batched(kernel, size, threads, 42);
+        gflopPerOp = Kernels.batchedFlops(size) / 1e9;
+    }
+
+    @Benchmark
+    public Object multiply(Flops flops) {
+        flops.gflop += gflopPerOp;
+        return multiply.get();
+    }
+}
@@ -0,0 +1,51 @@
+package matrix.jmh;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Sequential dense kernels of Task 2 and Task 3 on square matrices.
+ * Inputs are generated once per trial; every operation is one full
+ * product, so throughput is products per second.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"--add-modules=jdk.incubator.vector", "-Xmx4g"})
+@State(Scope.Benchmark)
+public class DenseMultiplyBenchmark {
+
+    @Param({"128", "256", "512"})
+    public int size;
+
+    @Param({"basic", "cacheFriendly", "tiled16", "tiled32", "tiled64",
+            "packed", "strassen", "vectorized", "simd"})
+    public String kernel;
+
+    private Supplier<Object> multiply;
+    private double gflopPerOp;
+
+    @Setup
+    public void setup() {
+        multiply = Kernels.dense(kernel, size, 1, 42);
+        gflopPerOp = Kernels.denseFlops(size) / 1e9;
+    }
+
+    @Benchmark
+    public Object multiply(Flops flops) {
+        flops.gflop += gflopPerOp;
+        return multiply.get();
+    }
+}
@@ -0,0 +1,24 @@
+package matrix.jmh;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Secondary result counting the work done. Benchmarks add the GFLOP of
+ * every operation, and in throughput mode JMH reports the counter as a
+ * rate with its own confidence interval, i.e. GFLOP/s.
+ */
+@AuxCounters(AuxCounters.Type.OPERATIONS)
+@State(Scope.Thread)
+public class Flops {
+
+    public double gflop;
+
+    @Setup(Level.Iteration)
+    public void reset() {
+        gflop = 0;
+    }
+}
@@ -0,0 +1,53 @@
+package matrix.jmh;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Dense matrix-vector product on random matrices of 128 MB: square, tall
+ * and short-wide (the last one is split by columns when run in parallel).
+ * One thread runs the sequential kernel. GEMV is bound by memory
+ * bandwidth: GB/s of A read is 4 x the gflop result.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xmx4g"})
+@State(Scope.Benchmark)
+public class GemvBenchmark {
+
+    @Param({"4096x4096", "1048576x16", "16x1048576"})
+    public String matrix;
+
+    @Param({"1", "2", "4", "8"})
+    public int threads;
+
+    private Supplier<Object> gemv;
+    private double gflopPerOp;
+
+    @Setup
+    public void setup() {
+        String[] dims = matrix.split("x");
+        int rows = Integer.parseInt(dims[0]), cols = Integer.parseInt(dims[1]);
+        gemv = Kernels.gemv(rows, cols, threads, 42);
+        gflopPerOp = Kernels.gemvFlops(rows, cols) / 1e9;
+    }
+
+    @Benchmark
+    public Object multiply(Flops flops) {
+        flops.gflop += gflopPerOp;
+        return gemv.get();
+    }
+}
@@ -0,0 +1,91 @@
+package matrix.jmh;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.function.Supplier;
+
+/**
+ * Reflective bridge to MatrixKernels in the default package (see there).
+ * Only used in setup methods, so the lookup is not part of any timing.
+ */
+final class Kernels {
+
+    private static final String ENTRY_POINT = "MatrixKernels";
+
+    private Kernels() {
+    }
+
+    @SuppressWarnings("unchecked")
+    static Supplier<Object> dense(String kernel, int size, int threads, long seed) {
+        return (Supplier<Object>) invoke("dense", new Class<?>[]{String.class, int.class, int.class, long.class},
+                kernel, size, threads, seed);
+    }
+
+    @SuppressWarnings("unchecked")
+    static Supplier<Object> spmv(int rows, int nnzPerRow, int threads, String precision, long seed) {
+        return (Supplier<Object>) invoke("spmv",
+                new Class<?>[]{int.class, int.class, int.class, String.class, long.class},
+                rows, nnzPerRow, threads, precision, seed);
+    }
+
+    @SuppressWarnings("unchecked")
+    static Supplier<Object> precision(String kernel, String precision, int size, long seed) {
+        return (Supplier<Object>) invoke("precision",
+                new Class<?>[]{String.class, String.class, int.class, long.class}, kernel, precision, size, seed);
+    }
+
+    static double precisionError(String kernel, String precision, int size, long seed) {
+        return (Double) invoke("precisionError",
+                new Class<?>[]{String.class, String.class, int.class, long.class}, kernel, precision, size, seed);
+    }
+
+    @SuppressWarnings("unchecked")
+    static Supplier<Object> rectangular(String kernel, String shape, int threads, long seed) {
+        return (Supplier<Object>) invoke("rectangular",
+                new Class<?>[]{String.class, String.class, int.class, long.class}, kernel, shape, threads, seed);
+    }
+
+    static double rectangularFlops(String shape) {
+        return (Double) invoke("rectangularFlops", new Class<?>[]{String.class}, shape);
+    }
+
+    @SuppressWarnings("unchecked")
+    static Supplier<Object> gemv(int rows, int cols, int threads, long seed) {
+        return (Supplier<Object>) invoke("gemv", new Class<?>[]{int.class, int.class, int.class, long.class},
+                rows, cols, threads, seed);
+    }
+
+    @SuppressWarnings("unchecked")
+    static Supplier<Object> batched(String kernel, int size, int threads, long seed) {
+        return (Supplier<Object>) invoke("batched", new Class<?>[]{String.class, int.class, int.class, long.class},
+                kernel, size, threads, seed);
+    }
+
+    static double batchedFlops(int size) {
+        return (Double) invoke("batchedFlops", new Class<?>[]{int.class}, size);
+    }
+
+    static double denseFlops(int size) {
+        return (Double) invoke("denseFlops", new Class<?>[]{int.class}, size);
+    }
+
+    static double gemvFlops(int rows, int cols) {
+        return (Double) invoke("gemvFlops", new Class<?>[]{int.class, int.class}, rows, cols);
+    }
+
+    static double spmvFlops(int rows, int nnzPerRow) {
+        return (Double) invoke("spmvFlops", new Class<?>[]{int.class, int.class}, rows, nnzPerRow);
+    }
+
+    private static Object invoke(String method, Class<?>[] types, Object... args) {
+        try {
+            return Class.forName(ENTRY_POINT).getMethod(method, types).invoke(null, args);
+        } catch (InvocationTargetException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot call " + ENTRY_POINT + "." + method, e);
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package matrix.jmh;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Multithreaded dense kernels of Task 3 for each thread count. The
+ * benchmark thread itself only submits the work and waits for it.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"--add-modules=jdk.incubator.vector", "-Xmx4g"})
+@State(Scope.Benchmark)
+public class ParallelMultiplyBenchmark {
+
+    @Param({"256", "512", "1024"})
+    public int size;
+
+    @Param({"threadPool", "parallelStream", "forkJoin"})
+    public String kernel;
+
+    @Param({"1", "2", "4", "8"})
+    public int threads;
+
+    private Supplier<Object> multiply;
+    private double gflopPerOp;
+
+    @Setup
+    public void setup() {
+        multiply = Kernels.dense(kernel, size, threads, 42);
+        gflopPerOp = Kernels.denseFlops(size) / 1e9;
+    }
+
+    @Benchmark
+    public Object multiply(Flops flops) {
+        flops.gflop += gflopPerOp;
+        return multiply.get();
+    }
+}
@@ -0,0 +1,121 @@
+package matrix.jmh;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Collection;
+import java.util.Locale;
+import java.util.Map;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.profile.LinuxPerfNormProfiler;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.ProfilersFailedException;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Hardware counter profiling mode (Linux only, needs the perf tool).
+ *
+ * Runs the selected benchmarks with JMH's perfnorm profiler, which reads the
+ * perf_event counters below around the measured iterations and divides
+ * them by the number of operations. They are then divided once more by the
+ * FLOP per operation (from the gflop counter of each benchmark), so kernels
+ * doing different amounts of work compare directly, e.g. L1 misses per FLOP
+ * of cacheFriendly against tiled32. Each row of results/jmh_perf.csv holds
+ * the timing of one parameter combination next to its counters.
+ *
+ * Takes the usual JMH arguments, e.g.
+ *   java -cp target/benchmarks.jar matrix.jmh.PerfProfile DenseMultiplyBenchmark -p kernel=cacheFriendly,tiled32
+ */
+public class PerfProfile {
+
+    static final String[] EVENTS = {
+            "cycles", "instructions", "L1-dcache-load-misses", "LLC-load-misses", "branch-misses"};
+
+    static final String CSV = "results/jmh_perf.csv";
+
+    public static void main(String[] args) throws CommandLineOptionException, RunnerException, IOException {
+        Options options = new OptionsBuilder()
+                .parent(new CommandLineOptions(args))
+                .addProfiler(LinuxPerfNormProfiler.class, "events=" + String.join(",", EVENTS))
+                .build();
+
+        Collection<RunResult> results;
+        try {
+            results = new Runner(options).run();
+        } catch (ProfilersFailedException e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            System.err.println("Cannot read hardware counters: " + cause.getMessage());
+            System.err.println("perfnorm needs the perf tool and access to the counters"
+                    + " (kernel.perf_event_paranoid <= 1; most VMs expose none)");
+            System.exit(1);
+            return;
+        }
+        write(results, new File(CSV));
+        System.out.println("Counters per FLOP stored in " + CSV);
+    }
+
+    static void write(Collection<RunResult> results, File file) throws IOException {
+        file.getAbsoluteFile().getParentFile().mkdirs();
+        boolean exists = file.exists();
+
+        try (PrintWriter writer = new PrintWriter(new FileWriter(file, true))) {
+            if (!exists) {
+                writer.println("benchmark,params,ops_per_s,ops_error,gflops,flop_per_op,ipc,"
+                        + "cycles_per_flop,instructions_per_flop,l1_misses_per_flop,llc_misses_per_flop,"
+                        + "branch_misses_per_flop");
+            }
+            for (RunResult run : results) {
+                writer.println(row(run));
+            }
+        }
+    }
+
+    // One CSV row: timing, then every counter divided by the FLOP per operation
+    private static String row(RunResult run) {
+        BenchmarkParams params = run.getParams();
+        Result<?> primary = run.getPrimaryResult();
+        Map<String, Result> secondary = run.getSecondaryResults();
+
+        double ops = primary.getScore();
+        double gflops = score(secondary, "gflop");
+        double flopPerOp = ops > 0 ? gflops * 1e9 / ops : Double.NaN;
+
+        StringBuilder names = new StringBuilder();
+        for (String key : params.getParamsKeys()) {
+            if (names.length() > 0) names.append(' ');
+            names.append(key).append('=').append(params.getParam(key));
+        }
+
+        StringBuilder row = new StringBuilder();
+        row.append(params.getBenchmark()).append(',').append(names).append(',')
+                .append(format(ops)).append(',').append(format(primary.getScoreError())).append(',')
+                .append(format(gflops)).append(',').append(format(flopPerOp)).append(',')
+                .append(format(score(secondary, "IPC")));
+        for (String event : EVENTS) {
+            row.append(',').append(format(score(secondary, event) / flopPerOp));
+        }
+        return row.toString();
+    }
+
+    // Score of a secondary result; perf may append a modifier such as ":u"
+    private static double score(Map<String, Result> secondary, String label) {
+        for (Map.Entry<String, Result> e : secondary.entrySet()) {
+            String key = e.getKey();
+            if (key.equals(label) || key.startsWith(label + ":")) {
+                return e.getValue().getScore();
+            }
+        }
+        return Double.NaN;
+    }
+
+    private static String format(double value) {
+        return Double.isNaN(value) ? "" : String.format(Locale.US, "%.6g", value);
+    }
+}
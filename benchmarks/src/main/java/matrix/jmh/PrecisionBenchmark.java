@@ -0,0 +1,56 @@
+package matrix.jmh;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The tiled and Vector API kernels in double, float and mixed precision
+ * (float operands, double sums). Setup prints the relative error of each
+ * float or mixed product against the double product of the same kernel,
+ * so every throughput comes with the accuracy it costs.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"--add-modules=jdk.incubator.vector", "-Xmx4g"})
+@State(Scope.Benchmark)
+public class PrecisionBenchmark {
+
+    @Param({"256", "1024"})
+    public int size;
+
+    @Param({"tiled", "simd"})
+    public String kernel;
+
+    @Param({"double", "float", "mixed"})
+    public String precision;
+
+    private Supplier<Object> multiply;
+    private double gflopPerOp;
+
+    @Setup
+    public void setup() {
+        multiply = Kernels.precision(kernel, precision, size, 42);
+        gflopPerOp = Kernels.denseFlops(size) / 1e9;
+        System.out.printf("%n%s %s %d: relative error vs double %.3g%n", kernel, precision, size,
+                Kernels.precisionError(kernel, precision, size, 42));
+    }
+
+    @Benchmark
+    public Object multiply(Flops flops) {
+        flops.gflop += gflopPerOp;
+        return multiply.get();
+    }
+}
@@ -0,0 +1,53 @@
+package matrix.jmh;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Skewed products (Task 3's RectangularMatrix): tall-skinny, short-wide
+ * (long shared dimension) and wide, each about 0.5 GFLOP. Shapes are
+ * m x k x n.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xmx4g"})
+@State(Scope.Benchmark)
+public class RectangularMultiplyBenchmark {
+
+    @Param({"65536x64x64", "64x65536x64", "64x64x65536"})
+    public String shape;
+
+    @Param({"packed", "forkJoin", "rectangular"})
+    public String kernel;
+
+    @Param({"1", "4"})
+    public int threads;
+
+    private Supplier<Object> multiply;
+    private double gflopPerOp;
+
+    @Setup
+    public void setup() {
+        multiply = Kernels.rectangular(kernel, shape, threads, 42);
+        gflopPerOp = Kernels.rectangularFlops(shape) / 1e9;
+    }
+
+    @Benchmark
+    public Object multiply(Flops flops) {
+        flops.gflop += gflopPerOp;
+        return multiply.get();
+    }
+}
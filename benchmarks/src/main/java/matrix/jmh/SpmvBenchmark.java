@@ -0,0 +1,57 @@
+package matrix.jmh;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * CSR sparse matrix-vector product (Task 2) on random square matrices with
+ * a fixed number of non-zeros per row. One thread runs the sequential
+ * kernel; more threads run the non-zero balanced parallel one.
+ * precision=float,mixed runs FloatCSRMatrix on the same matrix.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xmx4g"})
+@State(Scope.Benchmark)
+public class SpmvBenchmark {
+
+    @Param({"100000", "1000000"})
+    public int rows;
+
+    @Param({"8", "32"})
+    public int nnzPerRow;
+
+    @Param({"1", "2", "4", "8"})
+    public int threads;
+
+    @Param({"double"})
+    public String precision;
+
+    private Supplier<Object> spmv;
+    private double gflopPerOp;
+
+    @Setup
+    public void setup() {
+        spmv = Kernels.spmv(rows, nnzPerRow, threads, precision, 42);
+        gflopPerOp = Kernels.spmvFlops(rows, nnzPerRow) / 1e9;
+    }
+
+    @Benchmark
+    public Object multiply(Flops flops) {
+        flops.gflop += gflopPerOp;
+        return spmv.get();
+    }
+}